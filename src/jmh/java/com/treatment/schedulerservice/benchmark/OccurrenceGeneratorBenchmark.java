@@ -0,0 +1,72 @@
+package com.treatment.schedulerservice.benchmark;
+
+import com.treatment.schedulerservice.helper.EpochMinutes;
+import com.treatment.schedulerservice.helper.RecurrencePattern;
+import com.treatment.schedulerservice.service.recurrence.DefaultOccurrenceGenerator;
+import com.treatment.schedulerservice.service.recurrence.DefaultRecurrencePatternParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccurrenceGeneratorBenchmark {
+
+    @Param({"PT1H", "PT24H", "P30D", "P365D"})
+    public String window;
+
+    @Param({"DAILY:08:00,20:00", "WEEKLY:MONDAY:10:00", "MONTHLY:31:09:00"})
+    public String pattern;
+
+    private final DefaultOccurrenceGenerator generator = new DefaultOccurrenceGenerator();
+    private final long[] buffer = new long[1024];
+    private RecurrencePattern recurrencePattern;
+    private LocalDateTime fromTime;
+    private LocalDateTime toTime;
+    private LocalDateTime planStartTime;
+
+    @Setup
+    public void setUp() {
+        recurrencePattern = new DefaultRecurrencePatternParser().parse(pattern);
+        fromTime = LocalDateTime.of(2024, 1, 1, 7, 30);
+        toTime = fromTime.plus(Duration.parse(window));
+        planStartTime = fromTime.minusDays(1);
+    }
+
+    @Benchmark
+    public List<LocalDateTime> generate() {
+        return generator.generate(recurrencePattern, fromTime, toTime, planStartTime, null);
+    }
+
+    @Benchmark
+    public int generateEpochMinutes() {
+        long fromMinute = EpochMinutes.ceil(fromTime);
+        int total = 0;
+        int count;
+        do {
+            count = generator.generateEpochMinutes(recurrencePattern, fromMinute, toTime, planStartTime, null, buffer);
+            total += count;
+            if (count > 0) {
+                fromMinute = buffer[count - 1] + 1;
+            }
+        } while (count == buffer.length);
+        return total;
+    }
+}
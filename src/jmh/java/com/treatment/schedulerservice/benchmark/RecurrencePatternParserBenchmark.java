@@ -0,0 +1,56 @@
+package com.treatment.schedulerservice.benchmark;
+
+import com.treatment.schedulerservice.helper.RecurrencePattern;
+import com.treatment.schedulerservice.service.recurrence.CachingRecurrencePatternParser;
+import com.treatment.schedulerservice.service.recurrence.DefaultRecurrencePatternParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurrencePatternParserBenchmark {
+
+    @Param({
+            "DAILY:08:00",
+            "DAILY:06:00,10:00,14:00,18:00,22:00",
+            "WEEKLY:MONDAY:10:00",
+            "MONTHLY:15:14:00",
+            "ONCE:09:30"
+    })
+    public String pattern;
+
+    private DefaultRecurrencePatternParser parser;
+    private CachingRecurrencePatternParser cachingParser;
+
+    @Setup
+    public void setUp() {
+        parser = new DefaultRecurrencePatternParser();
+        cachingParser = new CachingRecurrencePatternParser(parser, new SimpleMeterRegistry(), 10_000);
+    }
+
+    @Benchmark
+    public RecurrencePattern parse() {
+        return parser.parse(pattern);
+    }
+
+    @Benchmark
+    public RecurrencePattern parseCached() {
+        return cachingParser.parse(pattern);
+    }
+}
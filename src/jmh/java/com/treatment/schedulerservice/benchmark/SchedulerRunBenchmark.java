@@ -0,0 +1,116 @@
+package com.treatment.schedulerservice.benchmark;
+
+import com.treatment.schedulerservice.SchedulerServiceApplication;
+import com.treatment.schedulerservice.dto.GenerationResult;
+import com.treatment.schedulerservice.service.TreatmentSchedulerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link TreatmentSchedulerService#generateTasks()} run against a file-backed H2 database seeded with
+ * {@code planCount} plans. Every invocation starts from an empty task table and no generation watermarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SchedulerRunBenchmark {
+
+    private static final String[] PATTERNS = {
+            "DAILY:08:00,20:00", "DAILY:06:00,12:00,18:00", "WEEKLY:MONDAY:10:00", "MONTHLY:15:14:00"
+    };
+    private static final int SEED_BATCH_SIZE = 5_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int planCount;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ConfigurableApplicationContext context;
+    private TreatmentSchedulerService schedulerService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SchedulerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:file:./target/jmh-h2/scheduler-" + planCount + ";MODE=PostgreSQL",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.treatment.schedulerservice=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--scheduler.look-ahead-hours=24",
+                        "--scheduler.execution-interval-ms=86400000",
+                        "--scheduler.partitions=" + parallelism * 2,
+                        "--scheduler.parallelism=" + parallelism);
+        schedulerService = context.getBean(TreatmentSchedulerService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seedPlans();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetTasks() {
+        jdbcTemplate.update("DELETE FROM treatment_tasks");
+        jdbcTemplate.update("UPDATE treatment_plans SET generated_until = NULL");
+    }
+
+    @Benchmark
+    public GenerationResult generateTasks() {
+        return schedulerService.generateTasks();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    private void seedPlans() {
+        jdbcTemplate.update("DELETE FROM treatment_plans");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp start = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < planCount; i++) {
+            batch.add(new Object[]{
+                    i % 2 == 0 ? "ACTION_A" : "ACTION_B",
+                    "BENCH_PATIENT_" + i,
+                    start,
+                    PATTERNS[i % PATTERNS.length],
+                    now
+            });
+            if (batch.size() == SEED_BATCH_SIZE || i == planCount - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO treatment_plans " +
+                        "(treatment_action, subject_patient, start_time, recurrence_pattern, active, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, TRUE, ?, ?)", batch.stream()
+                        .map(row -> new Object[]{row[0], row[1], row[2], row[3], row[4], row[4]})
+                        .toList());
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.treatment.schedulerservice.archive;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Layout of a task segment file. All fixed-size numbers are big-endian, times are microseconds since the epoch on
+ * the local time line.
+ * <pre>
+ * header       magic (int), version (short), row count (int), min and max start time (long, long)
+ * dictionaries patients, actions, statuses: count (int), then each value as length (short) and UTF-8 bytes
+ * block index  block count (int), then per block: min and max start time (long, long), row count (int),
+ *              offset in the file (long), compressed and raw length (int, int)
+ * blocks       deflated columns of up to {@value #BLOCK_ROWS} rows sorted by (start time, id)
+ * </pre>
+ * Within a block each column is stored after the previous one as variable-length integers: start time as the delta
+ * to the previous row (the block minimum for the first), id and plan id as zig-zag deltas to the previous row,
+ * patient, action and status as dictionary indexes, creation time as a zig-zag delta to the start time and
+ * completion time likewise plus one, {@code 0} meaning none.
+ */
+final class TaskSegmentFormat {
+
+    static final int MAGIC = 0x5453_4547; // "TSEG"
+    static final short VERSION = 1;
+    static final int BLOCK_ROWS = 4096;
+    static final int BLOCK_INDEX_ENTRY_BYTES = 8 + 8 + 4 + 8 + 4 + 4;
+
+    private TaskSegmentFormat() {
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Growable byte array holding one column while a block is encoded.
+     */
+    static final class Column {
+
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeTo(Column target) {
+            target.ensureCapacity(size);
+            System.arraycopy(bytes, 0, target.bytes, target.size, size);
+            target.size += size;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.treatment.schedulerservice.archive;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.dto.ArchivedTask;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.treatment.schedulerservice.archive.TaskSegmentFormat.*;
+
+/**
+ * Reads a task segment written by {@link TaskSegmentWriter} through a read-only memory mapping. Only the header and
+ * block index are decoded when the segment is opened; a query skips segments whose time range or patient dictionary
+ * cannot match and inflates only the blocks overlapping the requested time range. Instances are immutable and may
+ * be shared between threads.
+ */
+public final class TaskSegmentReader {
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final long minStart;
+    private final long maxStart;
+    private final String[] patients;
+    private final TreatmentAction[] actions;
+    private final TaskStatus[] statuses;
+    private final BlockEntry[] blocks;
+
+    private TaskSegmentReader(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        ByteBuffer in = buffer.duplicate();
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a task segment: " + file);
+        }
+        short version = in.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported task segment version " + version + ": " + file);
+        }
+        this.rowCount = in.getInt();
+        this.minStart = in.getLong();
+        this.maxStart = in.getLong();
+        this.patients = readDictionary(in, Function.identity(), String[]::new);
+        this.actions = readDictionary(in, TreatmentAction::valueOf, TreatmentAction[]::new);
+        this.statuses = readDictionary(in, TaskStatus::valueOf, TaskStatus[]::new);
+        this.blocks = new BlockEntry[in.getInt()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new BlockEntry(in.getLong(), in.getLong(), in.getInt(), in.getLong(), in.getInt(), in.getInt());
+        }
+    }
+
+    /**
+     * Maps {@code file}; the mapping stays valid after this method returns and is released with the reader.
+     *
+     * @throws IllegalArgumentException if the file is not a task segment
+     */
+    public static TaskSegmentReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TaskSegmentReader(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns up to {@code limit} tasks starting in {@code [from, to)}, ordered by start time and id.
+     *
+     * @param subjectPatient only tasks of this patient if not {@code null}
+     * @param from           no lower bound if {@code null}
+     * @param to             no upper bound if {@code null}
+     */
+    public List<ArchivedTask> find(String subjectPatient, LocalDateTime from, LocalDateTime to, int limit) {
+        long fromMicros = from == null ? Long.MIN_VALUE : toMicros(from);
+        long toMicros = to == null ? Long.MAX_VALUE : toMicros(to);
+        int patientCode = subjectPatient == null ? -1 : Arrays.asList(patients).indexOf(subjectPatient);
+        List<ArchivedTask> found = new ArrayList<>();
+        if (maxStart < fromMicros || minStart >= toMicros || (subjectPatient != null && patientCode < 0)) {
+            return found;
+        }
+        Inflater inflater = new Inflater();
+        try {
+            for (BlockEntry block : blocks) {
+                if (block.minStart() >= toMicros || found.size() >= limit) {
+                    break;
+                }
+                if (block.maxStart() < fromMicros) {
+                    continue;
+                }
+                decodeBlock(block, inflater, fromMicros, toMicros, patientCode, limit, found);
+            }
+        } finally {
+            inflater.end();
+        }
+        return found;
+    }
+
+    private void decodeBlock(BlockEntry block, Inflater inflater, long fromMicros, long toMicros, int patientCode,
+                             int limit, List<ArchivedTask> found) {
+        ByteBuffer raw = ByteBuffer.wrap(inflate(block, inflater));
+        int rows = block.rows();
+        long[] starts = new long[rows];
+        long[] ids = new long[rows];
+        long[] planIds = new long[rows];
+        int[] patientCodes = new int[rows];
+        int[] actionCodes = new int[rows];
+        int[] statusCodes = new int[rows];
+        long start = block.minStart();
+        for (int i = 0; i < rows; i++) {
+            start += readVarLong(raw);
+            starts[i] = start;
+        }
+        long id = 0;
+        for (int i = 0; i < rows; i++) {
+            id += unZigZag(readVarLong(raw));
+            ids[i] = id;
+        }
+        long planId = 0;
+        for (int i = 0; i < rows; i++) {
+            planId += unZigZag(readVarLong(raw));
+            planIds[i] = planId;
+        }
+        readCodes(raw, patientCodes);
+        readCodes(raw, actionCodes);
+        readCodes(raw, statusCodes);
+        long[] createdAt = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            createdAt[i] = readVarLong(raw);
+        }
+        for (int i = 0; i < rows && found.size() < limit; i++) {
+            long completedAt = readVarLong(raw);
+            if (starts[i] < fromMicros || starts[i] >= toMicros || (patientCode >= 0 && patientCodes[i] != patientCode)) {
+                continue;
+            }
+            found.add(new ArchivedTask(
+                    ids[i],
+                    planIds[i],
+                    patients[patientCodes[i]],
+                    actions[actionCodes[i]],
+                    fromMicros(starts[i]),
+                    statuses[statusCodes[i]],
+                    fromMicros(starts[i] + unZigZag(createdAt[i])),
+                    completedAt == 0 ? null : fromMicros(starts[i] + unZigZag(completedAt - 1))));
+        }
+    }
+
+    private byte[] inflate(BlockEntry block, Inflater inflater) {
+        byte[] raw = new byte[block.rawLength()];
+        inflater.reset();
+        inflater.setInput(buffer.slice(Math.toIntExact(block.offset()), block.compressedLength()));
+        try {
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("Truncated block at offset " + block.offset() + " in " + file);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block at offset " + block.offset() + " in " + file, e);
+        }
+        return raw;
+    }
+
+    private static void readCodes(ByteBuffer raw, int[] codes) {
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (int) readVarLong(raw);
+        }
+    }
+
+    private static <T> T[] readDictionary(ByteBuffer in, Function<String, T> parser, IntFunction<T[]> arrayFactory) {
+        T[] values = arrayFactory.apply(in.getInt());
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+            in.get(bytes);
+            values[i] = parser.apply(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private record BlockEntry(long minStart, long maxStart, int rows, long offset, int compressedLength,
+                              int rawLength) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.treatment.schedulerservice.archive;
+
+import com.treatment.schedulerservice.dto.ArchivedTask;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+
+import static com.treatment.schedulerservice.archive.TaskSegmentFormat.*;
+
+/**
+ * Writes archived tasks to an immutable segment file in the {@link TaskSegmentFormat columnar format}.
+ */
+public final class TaskSegmentWriter {
+
+    private static final Comparator<ArchivedTask> BY_START_TIME =
+            Comparator.comparing(ArchivedTask::startTime).thenComparing(ArchivedTask::id);
+
+    private TaskSegmentWriter() {
+    }
+
+    /**
+     * Writes {@code tasks} to {@code file}, which must not exist yet. The segment is written to a temporary file
+     * first and moved in place once complete, so readers never see a partial segment.
+     */
+    public static void write(Path file, List<ArchivedTask> tasks) throws IOException {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException("A segment needs at least one task");
+        }
+        List<ArchivedTask> sorted = tasks.stream().sorted(BY_START_TIME).toList();
+        Map<String, Integer> patients = dictionary(sorted, ArchivedTask::subjectPatient);
+        Map<String, Integer> actions = dictionary(sorted, task -> task.treatmentAction().name());
+        Map<String, Integer> statuses = dictionary(sorted, task -> task.status().name());
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeInt(sorted.size());
+        header.writeLong(toMicros(sorted.getFirst().startTime()));
+        header.writeLong(toMicros(sorted.getLast().startTime()));
+        writeDictionary(header, patients);
+        writeDictionary(header, actions);
+        writeDictionary(header, statuses);
+
+        List<Block> blocks = new ArrayList<>();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            for (int from = 0; from < sorted.size(); from += BLOCK_ROWS) {
+                List<ArchivedTask> rows = sorted.subList(from, Math.min(from + BLOCK_ROWS, sorted.size()));
+                blocks.add(encodeBlock(rows, patients, actions, statuses, deflater));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporary));
+             DataOutputStream out = new DataOutputStream(stream)) {
+            headerBytes.writeTo(out);
+            out.writeInt(blocks.size());
+            long offset = headerBytes.size() + 4L + (long) blocks.size() * BLOCK_INDEX_ENTRY_BYTES;
+            for (Block block : blocks) {
+                out.writeLong(block.minStart());
+                out.writeLong(block.maxStart());
+                out.writeInt(block.rows());
+                out.writeLong(offset);
+                out.writeInt(block.compressed().length);
+                out.writeInt(block.rawLength());
+                offset += block.compressed().length;
+            }
+            for (Block block : blocks) {
+                out.write(block.compressed());
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Block encodeBlock(List<ArchivedTask> rows,
+                                     Map<String, Integer> patients,
+                                     Map<String, Integer> actions,
+                                     Map<String, Integer> statuses,
+                                     Deflater deflater) {
+        Column startTimes = new Column();
+        Column ids = new Column();
+        Column planIds = new Column();
+        Column patientCodes = new Column();
+        Column actionCodes = new Column();
+        Column statusCodes = new Column();
+        Column createdAt = new Column();
+        Column completedAt = new Column();
+
+        long minStart = toMicros(rows.getFirst().startTime());
+        long previousStart = minStart;
+        long previousId = 0;
+        long previousPlanId = 0;
+        for (ArchivedTask task : rows) {
+            long start = toMicros(task.startTime());
+            startTimes.writeVarLong(start - previousStart);
+            ids.writeVarLong(zigZag(task.id() - previousId));
+            planIds.writeVarLong(zigZag(task.treatmentPlanId() - previousPlanId));
+            patientCodes.writeVarLong(patients.get(task.subjectPatient()));
+            actionCodes.writeVarLong(actions.get(task.treatmentAction().name()));
+            statusCodes.writeVarLong(statuses.get(task.status().name()));
+            createdAt.writeVarLong(zigZag(toMicros(task.createdAt()) - start));
+            completedAt.writeVarLong(task.completedAt() == null ? 0 : zigZag(toMicros(task.completedAt()) - start) + 1);
+            previousStart = start;
+            previousId = task.id();
+            previousPlanId = task.treatmentPlanId();
+        }
+
+        Column raw = new Column();
+        for (Column column : List.of(startTimes, ids, planIds, patientCodes, actionCodes, statusCodes, createdAt, completedAt)) {
+            column.writeTo(raw);
+        }
+        deflater.reset();
+        deflater.setInput(raw.bytes(), 0, raw.size());
+        deflater.finish();
+        byte[] compressed = new byte[Math.max(64, raw.size() / 2)];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return new Block(minStart, previousStart, rows.size(), raw.size(), Arrays.copyOf(compressed, length));
+    }
+
+    private static Map<String, Integer> dictionary(List<ArchivedTask> tasks, Function<ArchivedTask, String> value) {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        for (ArchivedTask task : tasks) {
+            codes.putIfAbsent(value.apply(task), codes.size());
+        }
+        return codes;
+    }
+
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private record Block(long minStart, long maxStart, int rows, int rawLength, byte[] compressed) {
+    }
+}
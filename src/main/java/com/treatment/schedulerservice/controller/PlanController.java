@@ -0,0 +1,26 @@
+package com.treatment.schedulerservice.controller;
+
+import com.treatment.schedulerservice.dto.PlanImportResult;
+import com.treatment.schedulerservice.service.PlanImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/plans")
+@RequiredArgsConstructor
+public class PlanController {
+
+    private final PlanImportService planImportService;
+
+    /**
+     * Imports plans from an NDJSON body, one plan per line. The body is streamed, not buffered; the response
+     * reports the rejected lines.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "application/ndjson"})
+    public PlanImportResult importPlans(InputStream body) {
+        return planImportService.importPlans(body);
+    }
+}
@@ -1,19 +1,56 @@
 package com.treatment.schedulerservice.controller;
 
-import com.treatment.schedulerservice.service.TreatmentSchedulerService;
+import com.treatment.schedulerservice.dto.RunSummary;
+import com.treatment.schedulerservice.dto.SchedulerRunView;
+import com.treatment.schedulerservice.service.SchedulerJob;
+import com.treatment.schedulerservice.service.SchedulerJobService;
+import com.treatment.schedulerservice.service.SchedulerRunService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/scheduler")
 @RequiredArgsConstructor
 public class SchedulerController {
 
-    private final TreatmentSchedulerService schedulerService;
+    private final SchedulerJobService schedulerJobService;
+    private final SchedulerRunService schedulerRunService;
 
+    /**
+     * Starts a full generation run in the background, or joins the one in progress, and returns its job.
+     * Progress is available at the job's location.
+     */
     @PostMapping("/run")
-    public String runScheduler() {
-        int tasksGenerated = schedulerService.generateTasksNow();
-        return String.format("Scheduler executed. Generated %d tasks.", tasksGenerated);
+    public ResponseEntity<SchedulerJob> runScheduler() {
+        SchedulerJob job = schedulerJobService.submit();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/scheduler/runs/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Reports of the last {@code limit} runs, newest first. Kept apart from {@code /runs/{jobId}}, which addresses
+     * the background jobs started by {@code POST /run}.
+     */
+    @GetMapping("/history")
+    public List<SchedulerRunView> getRecentRuns(@RequestParam(defaultValue = "20") int limit) {
+        return schedulerRunService.findRecentRuns(limit);
+    }
+
+    /**
+     * Latency, lead time and throughput aggregated over the last {@code limit} runs.
+     */
+    @GetMapping("/history/summary")
+    public RunSummary getRunSummary(@RequestParam(defaultValue = "100") int limit) {
+        return schedulerRunService.summarizeRecentRuns(limit);
+    }
+
+    @GetMapping("/runs/{jobId}")
+    public ResponseEntity<SchedulerJob> getJob(@PathVariable String jobId) {
+        return ResponseEntity.of(schedulerJobService.findJob(jobId));
     }
 }
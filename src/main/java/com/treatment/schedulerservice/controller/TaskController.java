@@ -0,0 +1,87 @@
+package com.treatment.schedulerservice.controller;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.dto.ArchivedTask;
+import com.treatment.schedulerservice.dto.TaskCompletionRequest;
+import com.treatment.schedulerservice.dto.TaskCompletionResult;
+import com.treatment.schedulerservice.dto.TaskFilter;
+import com.treatment.schedulerservice.dto.TaskPage;
+import com.treatment.schedulerservice.dto.TaskView;
+import com.treatment.schedulerservice.service.TaskArchiveService;
+import com.treatment.schedulerservice.service.TaskCompletionService;
+import com.treatment.schedulerservice.service.TreatmentTaskQueryService;
+import com.treatment.schedulerservice.service.UpcomingTaskService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tasks")
+@RequiredArgsConstructor
+public class TaskController {
+
+    private final TreatmentTaskQueryService taskQueryService;
+    private final TaskCompletionService taskCompletionService;
+    private final TaskArchiveService taskArchiveService;
+    private final UpcomingTaskService upcomingTaskService;
+
+    /**
+     * Lists tasks ordered by start time. Pass the returned {@code nextCursor} as {@code cursor} to read the next
+     * page with the same filters.
+     */
+    @GetMapping
+    public TaskPage getTasks(@RequestParam(required = false) String patient,
+                             @RequestParam(required = false) TaskStatus status,
+                             @RequestParam(required = false) Long planId,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                             @RequestParam(required = false) String cursor,
+                             @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return taskQueryService.findTasks(new TaskFilter(patient, status, planId, from, to), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lists the active tasks of a patient starting in the next {@code hours}, served from a short-lived cache.
+     */
+    @GetMapping("/upcoming")
+    public List<TaskView> getUpcomingTasks(@RequestParam String patient,
+                                           @RequestParam(defaultValue = "8") int hours) {
+        try {
+            return upcomingTaskService.findUpcomingTasks(patient, hours);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Marks tasks as completed, by id or by plan or patient and start time range.
+     */
+    @PostMapping("/complete")
+    public TaskCompletionResult completeTasks(@RequestBody TaskCompletionRequest request) {
+        try {
+            return taskCompletionService.complete(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lists tasks moved to the archive files, ordered by start time.
+     */
+    @GetMapping("/archive")
+    public List<ArchivedTask> getArchivedTasks(@RequestParam(required = false) String patient,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(defaultValue = "1000") int limit) {
+        return taskArchiveService.findTasks(patient, from, to, limit);
+    }
+}
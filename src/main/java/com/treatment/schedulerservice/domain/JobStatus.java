@@ -0,0 +1,7 @@
+package com.treatment.schedulerservice.domain;
+
+public enum JobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,20 @@
+package com.treatment.schedulerservice.dto;
+
+import com.treatment.schedulerservice.domain.TreatmentAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the {@code TreatmentPlan} columns needed to generate tasks.
+ */
+public record ActivePlan(
+        Long id,
+        TreatmentAction treatmentAction,
+        String subjectPatient,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        String recurrencePattern,
+        LocalDateTime generatedUntil,
+        LocalDateTime nextFireAt
+) {
+}
@@ -0,0 +1,21 @@
+package com.treatment.schedulerservice.dto;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task moved out of {@code treatment_tasks} by the retention job, as stored in the archive table and files.
+ */
+public record ArchivedTask(
+        Long id,
+        Long treatmentPlanId,
+        String subjectPatient,
+        TreatmentAction treatmentAction,
+        LocalDateTime startTime,
+        TaskStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.treatment.schedulerservice.dto;
+
+/**
+ * Outcome of one chunk of plans processed in its own transaction.
+ */
+public record ChunkResult(int partition, int chunkIndex, int plansProcessed, int tasksCreated, boolean failed) {
+
+    public static ChunkResult failed(int partition, int chunkIndex, int plansProcessed) {
+        return new ChunkResult(partition, chunkIndex, plansProcessed, 0, true);
+    }
+}
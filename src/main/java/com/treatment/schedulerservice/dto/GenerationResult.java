@@ -0,0 +1,18 @@
+package com.treatment.schedulerservice.dto;
+
+import java.util.List;
+
+public record GenerationResult(List<ChunkResult> chunks) {
+
+    public int tasksCreated() {
+        return chunks.stream().mapToInt(ChunkResult::tasksCreated).sum();
+    }
+
+    public int plansProcessed() {
+        return chunks.stream().mapToInt(ChunkResult::plansProcessed).sum();
+    }
+
+    public long failedChunks() {
+        return chunks.stream().filter(ChunkResult::failed).count();
+    }
+}
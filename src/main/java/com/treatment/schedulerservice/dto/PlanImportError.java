@@ -0,0 +1,7 @@
+package com.treatment.schedulerservice.dto;
+
+/**
+ * A rejected line of a plan import; {@code line} is 1-based.
+ */
+public record PlanImportError(long line, String message) {
+}
@@ -0,0 +1,18 @@
+package com.treatment.schedulerservice.dto;
+
+import com.treatment.schedulerservice.domain.TreatmentAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of an NDJSON plan import. {@code active} defaults to {@code true}.
+ */
+public record PlanImportLine(
+        TreatmentAction treatmentAction,
+        String subjectPatient,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        String recurrencePattern,
+        Boolean active
+) {
+}
@@ -0,0 +1,12 @@
+package com.treatment.schedulerservice.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a plan import. {@code errors} holds the first rejected lines only; {@code failedLines} counts all
+ * of them. {@code readError} is set if the input could not be read to the end; the plans of the lines read
+ * before are imported.
+ */
+public record PlanImportResult(long linesRead, long plansImported, long failedLines, List<PlanImportError> errors,
+                               String readError) {
+}
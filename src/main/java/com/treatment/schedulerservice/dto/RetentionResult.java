@@ -0,0 +1,8 @@
+package com.treatment.schedulerservice.dto;
+
+/**
+ * Outcome of a retention run: {@code tasksPurged} tasks were removed from {@code treatment_tasks}, of which
+ * {@code tasksArchived} were first copied to {@code treatment_tasks_archive}.
+ */
+public record RetentionResult(long tasksPurged, long tasksArchived, int chunks, long durationMs) {
+}
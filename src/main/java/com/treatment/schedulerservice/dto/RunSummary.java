@@ -0,0 +1,29 @@
+package com.treatment.schedulerservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate of the last {@code runs} generation runs, started between {@code from} and {@code to}. Throughput is
+ * the total of plans and tasks divided by the summed run durations. Lead-time percentiles are taken over the tasks
+ * created by all of these runs, at one-minute resolution, and are {@code null} if they created no task.
+ */
+public record RunSummary(int runs,
+                         LocalDateTime from,
+                         LocalDateTime to,
+                         long plansProcessed,
+                         long tasksCreated,
+                         long failedChunks,
+                         long lateTasks,
+                         long durationAvgMs,
+                         long durationP50Ms,
+                         long durationP99Ms,
+                         long durationMaxMs,
+                         double plansPerSecond,
+                         double tasksPerSecond,
+                         Long leadTimeP50Seconds,
+                         Long leadTimeP99Seconds) {
+
+    public static RunSummary empty() {
+        return new RunSummary(0, null, null, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.treatment.schedulerservice.dto;
+
+import com.treatment.schedulerservice.entity.SchedulerRun;
+
+import java.time.LocalDateTime;
+
+/**
+ * Report of one generation run returned by the run history API. Phase timings are summed over all partitions of
+ * the run.
+ */
+public record SchedulerRunView(
+        Long id,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long durationMs,
+        int plansProcessed,
+        int tasksCreated,
+        int chunks,
+        int failedChunks,
+        long lateTasks,
+        long fetchMs,
+        long parseMs,
+        long generateMs,
+        long dedupMs,
+        long insertMs,
+        Long leadTimeP50Seconds,
+        Long leadTimeP99Seconds
+) {
+
+    public static SchedulerRunView of(SchedulerRun run) {
+        return new SchedulerRunView(run.getId(), run.getStartedAt(), run.getFinishedAt(), run.getDurationMs(),
+                run.getPlansProcessed(), run.getTasksCreated(), run.getChunks(), run.getFailedChunks(),
+                run.getLateTasks(), run.getFetchMs(), run.getParseMs(), run.getGenerateMs(), run.getDedupMs(),
+                run.getInsertMs(), run.getLeadTimeP50Seconds(), run.getLeadTimeP99Seconds());
+    }
+}
@@ -0,0 +1,18 @@
+package com.treatment.schedulerservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tasks to complete, either by id or as the tasks of one plan or one patient starting in {@code [from, to)}.
+ * {@code completedAt} defaults to the time of the request.
+ */
+public record TaskCompletionRequest(
+        List<Long> taskIds,
+        Long planId,
+        String patient,
+        LocalDateTime from,
+        LocalDateTime to,
+        LocalDateTime completedAt
+) {
+}
@@ -0,0 +1,13 @@
+package com.treatment.schedulerservice.dto;
+
+/**
+ * Outcome of a bulk completion; {@code missing} counts requested ids without a task and is always 0 for
+ * range requests.
+ */
+public record TaskCompletionResult(long updated, long alreadyCompleted, long missing) {
+
+    public TaskCompletionResult plus(TaskCompletionResult other) {
+        return new TaskCompletionResult(updated + other.updated, alreadyCompleted + other.alreadyCompleted,
+                missing + other.missing);
+    }
+}
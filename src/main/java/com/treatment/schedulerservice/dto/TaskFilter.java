@@ -0,0 +1,18 @@
+package com.treatment.schedulerservice.dto;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria of a task query; {@code null} fields do not filter. {@code from} is inclusive and {@code to}
+ * exclusive.
+ */
+public record TaskFilter(
+        String subjectPatient,
+        TaskStatus status,
+        Long treatmentPlanId,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+}
@@ -0,0 +1,9 @@
+package com.treatment.schedulerservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Natural key of a {@code TreatmentTask}, mirrors the {@code uk_plan_start_time} constraint.
+ */
+public record TaskKey(Long treatmentPlanId, LocalDateTime startTime) {
+}
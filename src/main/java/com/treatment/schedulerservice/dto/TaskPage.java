@@ -0,0 +1,9 @@
+package com.treatment.schedulerservice.dto;
+
+import java.util.List;
+
+/**
+ * One page of a task query; {@code nextCursor} is {@code null} on the last page.
+ */
+public record TaskPage(List<TaskView> tasks, String nextCursor) {
+}
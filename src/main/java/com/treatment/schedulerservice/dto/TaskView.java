@@ -0,0 +1,20 @@
+package com.treatment.schedulerservice.dto;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a {@code TreatmentTask} returned by the task query API.
+ */
+public record TaskView(
+        Long id,
+        Long treatmentPlanId,
+        String subjectPatient,
+        TreatmentAction treatmentAction,
+        LocalDateTime startTime,
+        TaskStatus status,
+        LocalDateTime completedAt
+) {
+}
@@ -0,0 +1,35 @@
+package com.treatment.schedulerservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ownership of one hash partition of the plans by a scheduler node. A lease is free when it has no owner or
+ * {@link #leaseUntil} has passed.
+ */
+@Entity
+@Table(name = "scheduler_partition_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionLease {
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(name = "owner")
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,77 @@
+package com.treatment.schedulerservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Summary of one task generation run. Phase timings are summed over all partitions of the run, so with
+ * {@code scheduler.parallelism > 1} they can add up to more than {@link #durationMs}.
+ */
+@Entity
+@Table(name = "scheduler_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at", nullable = false)
+    private LocalDateTime finishedAt;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Column(name = "plans_processed", nullable = false)
+    private int plansProcessed;
+
+    @Column(name = "tasks_created", nullable = false)
+    private int tasksCreated;
+
+    @Column(name = "chunks", nullable = false)
+    private int chunks;
+
+    @Column(name = "failed_chunks", nullable = false)
+    private int failedChunks;
+
+    /** Tasks created after their start time. */
+    @Column(name = "late_tasks", nullable = false)
+    private long lateTasks;
+
+    @Column(name = "fetch_ms", nullable = false)
+    private long fetchMs;
+
+    @Column(name = "parse_ms", nullable = false)
+    private long parseMs;
+
+    @Column(name = "generate_ms", nullable = false)
+    private long generateMs;
+
+    @Column(name = "dedup_ms", nullable = false)
+    private long dedupMs;
+
+    @Column(name = "insert_ms", nullable = false)
+    private long insertMs;
+
+    /** Median time between creation and start of the tasks created by the run, at one-minute resolution. */
+    @Column(name = "lead_time_p50_seconds")
+    private Long leadTimeP50Seconds;
+
+    @Column(name = "lead_time_p99_seconds")
+    private Long leadTimeP99Seconds;
+
+    /** Lead times of the created tasks, encoded by {@code LeadTimeHistogram}; merged to summarize several runs. */
+    @Column(name = "lead_time_histogram")
+    private byte[] leadTimeHistogram;
+}
@@ -1,6 +1,7 @@
 package com.treatment.schedulerservice.entity;
 
 import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.event.PlanChangedEvent;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,8 +9,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.DomainEvents;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Entity
 @Table(name = "treatment_plans")
@@ -47,6 +51,19 @@ public class TreatmentPlan {
     @Column(name = "active", nullable = false)
     private Boolean active = true;
 
+    /**
+     * Exclusive upper bound of the window tasks were already generated for; advanced by the scheduler.
+     */
+    @Column(name = "generated_until")
+    private LocalDateTime generatedUntil;
+
+    /**
+     * When the first occurrence not generated yet enters the look-ahead window; {@code null} once the plan has no
+     * further occurrence. New plans fire at their start time.
+     */
+    @Column(name = "next_fire_at")
+    private LocalDateTime nextFireAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -57,10 +74,24 @@ public class TreatmentPlan {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (nextFireAt == null) {
+            nextFireAt = startTime;
+        }
     }
 
+    /**
+     * A changed plan is re-evaluated right away: its watermark is cleared, so the look-ahead window is generated
+     * again with an existence check, and an active plan becomes due immediately.
+     */
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        generatedUntil = null;
+        nextFireAt = Boolean.TRUE.equals(active) ? updatedAt : null;
+    }
+
+    @DomainEvents
+    Collection<PlanChangedEvent> planChanged() {
+        return List.of(new PlanChangedEvent(id));
     }
 }
@@ -26,7 +26,8 @@ import java.time.LocalDateTime;
 public class TreatmentTask {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "treatment_tasks_seq")
+    @SequenceGenerator(name = "treatment_tasks_seq", sequenceName = "treatment_tasks_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
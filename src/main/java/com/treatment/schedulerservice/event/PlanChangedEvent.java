@@ -0,0 +1,8 @@
+package com.treatment.schedulerservice.event;
+
+/**
+ * Published when a plan is saved through {@code TreatmentPlanRepository}. The saved instance may be a detached copy
+ * whose {@code nextFireAt} is only set on flush, so listeners read it from the database after the commit.
+ */
+public record PlanChangedEvent(Long planId) {
+}
@@ -0,0 +1,10 @@
+package com.treatment.schedulerservice.event;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Published after new {@code next_fire_at} values of plans have been committed.
+ */
+public record PlanScheduleChangedEvent(Set<LocalDateTime> nextFireTimes) {
+}
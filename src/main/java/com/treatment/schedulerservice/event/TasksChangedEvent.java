@@ -0,0 +1,9 @@
+package com.treatment.schedulerservice.event;
+
+import java.util.Set;
+
+/**
+ * Published after tasks of the given patients have been created or changed and committed.
+ */
+public record TasksChangedEvent(Set<String> subjectPatients) {
+}
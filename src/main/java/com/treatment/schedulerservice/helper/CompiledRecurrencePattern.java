@@ -0,0 +1,209 @@
+package com.treatment.schedulerservice.helper;
+
+import com.treatment.schedulerservice.domain.RecurrenceType;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.treatment.schedulerservice.helper.EpochMinutes.MINUTES_PER_DAY;
+
+/**
+ * Primitive form of a {@link RecurrencePattern}: sorted minute-of-day offsets, a day-of-week bitmask and a
+ * day-of-month rule. Occurrences are computed as epoch-minutes with plain arithmetic, without allocating.
+ */
+public final class CompiledRecurrencePattern {
+
+    /**
+     * Returned by {@link #nextAtOrAfter} when the pattern has no further occurrence.
+     */
+    public static final long NO_OCCURRENCE = Long.MAX_VALUE;
+
+    // 1970-01-01 (epoch day 0) was a Thursday, i.e. DayOfWeek index 3 counting Monday as 0
+    private static final int EPOCH_DAY_OF_WEEK_INDEX = 3;
+
+    private final RecurrenceType type;
+    private final short[] minutesOfDay;
+    private final short onceMinuteOfDay;
+    private final int dayOfWeekMask;
+    private final int dayOfMonth;
+
+    private CompiledRecurrencePattern(RecurrenceType type,
+                                      short[] minutesOfDay,
+                                      short onceMinuteOfDay,
+                                      int dayOfWeekMask,
+                                      int dayOfMonth) {
+        this.type = type;
+        this.minutesOfDay = minutesOfDay;
+        this.onceMinuteOfDay = onceMinuteOfDay;
+        this.dayOfWeekMask = dayOfWeekMask;
+        this.dayOfMonth = dayOfMonth;
+    }
+
+    public static CompiledRecurrencePattern compile(RecurrencePattern pattern) {
+        List<LocalTime> times = pattern.getTimes();
+        if (times.isEmpty()) {
+            throw new IllegalArgumentException("At least one time must be specified");
+        }
+        short[] minutes = new short[times.size()];
+        for (int i = 0; i < minutes.length; i++) {
+            LocalTime time = times.get(i);
+            if (time.getSecond() != 0 || time.getNano() != 0) {
+                throw new IllegalArgumentException("Times must be specified with minute precision: " + time);
+            }
+            minutes[i] = (short) (time.getHour() * 60 + time.getMinute());
+        }
+        // ONCE patterns have always used the first time as given
+        short onceMinute = minutes[0];
+        short[] sortedMinutes = sortDistinct(minutes);
+
+        int dayOfWeekMask = 0;
+        int dayOfMonth = 0;
+        switch (pattern.getType()) {
+            case WEEKLY -> {
+                if (pattern.getDayOfWeek() == null) {
+                    throw new IllegalArgumentException("Weekly pattern requires a day of week");
+                }
+                dayOfWeekMask = 1 << (pattern.getDayOfWeek().getValue() - 1);
+            }
+            case MONTHLY -> {
+                if (pattern.getDayOfMonth() == null) {
+                    throw new IllegalArgumentException("Monthly pattern requires a day of month");
+                }
+                dayOfMonth = Math.min(Math.max(pattern.getDayOfMonth(), 1), 31);
+            }
+            case DAILY, ONCE -> {
+            }
+        }
+        return new CompiledRecurrencePattern(pattern.getType(), sortedMinutes, onceMinute, dayOfWeekMask, dayOfMonth);
+    }
+
+    /**
+     * Returns the first occurrence at or after {@code epochMinute}, or {@link #NO_OCCURRENCE}.
+     *
+     * @param onceEpochDay epoch day a {@code ONCE} pattern fires on (the plan start date); ignored otherwise
+     */
+    public long nextAtOrAfter(long epochMinute, long onceEpochDay) {
+        long day = Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+        int minuteOfDay = (int) (epochMinute - day * MINUTES_PER_DAY);
+        return switch (type) {
+            case DAILY -> nextDaily(day, minuteOfDay);
+            case WEEKLY -> nextWeekly(day, minuteOfDay);
+            case MONTHLY -> nextMonthly(day, minuteOfDay);
+            case ONCE -> {
+                long occurrence = at(onceEpochDay, onceMinuteOfDay);
+                yield occurrence >= epochMinute ? occurrence : NO_OCCURRENCE;
+            }
+        };
+    }
+
+    /**
+     * Writes the occurrences in {@code [fromMinute, toMinuteExclusive)} into {@code buffer} starting at
+     * {@code offset}, stopping when the buffer is full. Callers resume from the last written value plus one.
+     *
+     * @return number of occurrences written
+     */
+    public int fill(long fromMinute, long toMinuteExclusive, long onceEpochDay, long[] buffer, int offset) {
+        int count = 0;
+        long minute = fromMinute;
+        while (offset + count < buffer.length) {
+            long occurrence = nextAtOrAfter(minute, onceEpochDay);
+            if (occurrence >= toMinuteExclusive) {
+                break;
+            }
+            buffer[offset + count++] = occurrence;
+            minute = occurrence + 1;
+        }
+        return count;
+    }
+
+    public RecurrenceType getType() {
+        return type;
+    }
+
+    private long nextDaily(long day, int minuteOfDay) {
+        int index = firstTimeAtOrAfter(minuteOfDay);
+        return index < minutesOfDay.length ? at(day, minutesOfDay[index]) : at(day + 1, minutesOfDay[0]);
+    }
+
+    private long nextWeekly(long day, int minuteOfDay) {
+        if (matchesDayOfWeek(day)) {
+            int index = firstTimeAtOrAfter(minuteOfDay);
+            if (index < minutesOfDay.length) {
+                return at(day, minutesOfDay[index]);
+            }
+        }
+        for (int delta = 1; delta <= 7; delta++) {
+            if (matchesDayOfWeek(day + delta)) {
+                return at(day + delta, minutesOfDay[0]);
+            }
+        }
+        return NO_OCCURRENCE;
+    }
+
+    private long nextMonthly(long day, int minuteOfDay) {
+        // Civil date from epoch day (H. Hinnant, "chrono-compatible low-level date algorithms")
+        long z = day + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int today = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        int monthLength = lengthOfMonth(year, month);
+        int effectiveDay = Math.min(dayOfMonth, monthLength);
+        if (today < effectiveDay) {
+            return at(day + effectiveDay - today, minutesOfDay[0]);
+        }
+        if (today == effectiveDay) {
+            int index = firstTimeAtOrAfter(minuteOfDay);
+            if (index < minutesOfDay.length) {
+                return at(day, minutesOfDay[index]);
+            }
+        }
+        long firstOfNextMonth = day - today + 1 + monthLength;
+        int nextMonthLength = month == 12 ? 31 : lengthOfMonth(year, month + 1);
+        return at(firstOfNextMonth + Math.min(dayOfMonth, nextMonthLength) - 1, minutesOfDay[0]);
+    }
+
+    private int firstTimeAtOrAfter(int minuteOfDay) {
+        int index = Arrays.binarySearch(minutesOfDay, (short) minuteOfDay);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private boolean matchesDayOfWeek(long day) {
+        int dayOfWeekIndex = Math.floorMod(day + EPOCH_DAY_OF_WEEK_INDEX, 7);
+        return (dayOfWeekMask & (1 << dayOfWeekIndex)) != 0;
+    }
+
+    private static long at(long day, int minuteOfDay) {
+        return day * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static short[] sortDistinct(short[] values) {
+        short[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+}
@@ -0,0 +1,33 @@
+package com.treatment.schedulerservice.helper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Conversions between {@link LocalDateTime} and minutes since {@code 1970-01-01T00:00} on the local time line.
+ */
+public final class EpochMinutes {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private EpochMinutes() {
+    }
+
+    public static long floor(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * MINUTES_PER_DAY
+                + dateTime.getHour() * 60L
+                + dateTime.getMinute();
+    }
+
+    public static long ceil(LocalDateTime dateTime) {
+        long minute = floor(dateTime);
+        return dateTime.getSecond() == 0 && dateTime.getNano() == 0 ? minute : minute + 1;
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMinute) {
+        long epochDay = Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+        int minuteOfDay = (int) (epochMinute - epochDay * MINUTES_PER_DAY);
+        return LocalDateTime.of(LocalDate.ofEpochDay(epochDay), LocalTime.of(minuteOfDay / 60, minuteOfDay % 60));
+    }
+}
@@ -1,25 +1,39 @@
 package com.treatment.schedulerservice.helper;
 
 import com.treatment.schedulerservice.domain.RecurrenceType;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.List;
 
-@Data
+/**
+ * Parsed recurrence pattern. Immutable, so parsed instances can be cached and shared between threads.
+ */
+@Value
 @Builder
-@NoArgsConstructor
-@AllArgsConstructor
 public class RecurrencePattern {
 
-    private RecurrenceType type;
-    private List<LocalTime> times;
-    private DayOfWeek dayOfWeek;
-    private Integer dayOfMonth;
+    RecurrenceType type;
+    List<LocalTime> times;
+    DayOfWeek dayOfWeek;
+    Integer dayOfMonth;
+
+    @Getter(lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    CompiledRecurrencePattern compiled = CompiledRecurrencePattern.compile(this);
+
+    private RecurrencePattern(RecurrenceType type, List<LocalTime> times, DayOfWeek dayOfWeek, Integer dayOfMonth) {
+        this.type = type;
+        this.times = times == null ? List.of() : List.copyOf(times);
+        this.dayOfWeek = dayOfWeek;
+        this.dayOfMonth = dayOfMonth;
+    }
 
     public static RecurrencePattern daily(List<LocalTime> times) {
         return RecurrencePattern.builder()
@@ -0,0 +1,94 @@
+package com.treatment.schedulerservice.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Task lead times in one-minute buckets. A run stores its histogram in {@code scheduler_runs}, so the percentiles
+ * of several runs are computed from their merged buckets instead of from the percentiles of each run.
+ * <p>
+ * The encoding lists the non-empty buckets as unsigned varint pairs of (minutes since the previous non-empty
+ * bucket, count), so it is as long as the number of distinct lead times and not the number of tasks.
+ */
+public final class LeadTimeHistogram {
+
+    private long[] counts = new long[0];
+    private long total;
+
+    public void add(int minute, long count) {
+        if (count <= 0) {
+            return;
+        }
+        if (minute >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(minute + 1, counts.length * 2));
+        }
+        counts[minute] += count;
+        total += count;
+    }
+
+    /**
+     * Adds the buckets of a histogram produced by {@link #encode()}.
+     */
+    public void addEncoded(byte[] encoded) {
+        int[] position = {0};
+        int minute = -1;
+        while (position[0] < encoded.length) {
+            minute += (int) readVarint(encoded, position);
+            add(minute, readVarint(encoded, position));
+        }
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int previous = -1;
+        for (int minute = 0; minute < counts.length; minute++) {
+            if (counts[minute] > 0) {
+                writeVarint(out, minute - previous);
+                writeVarint(out, counts[minute]);
+                previous = minute;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the lower bound of the one-minute bucket holding the {@code quantile} of the lead times, or
+     *         {@code null} if the histogram is empty
+     */
+    public Duration percentile(double quantile) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max((long) Math.ceil(quantile * total), 1);
+        long seen = 0;
+        int minute = 0;
+        while (seen + counts[minute] < rank) {
+            seen += counts[minute++];
+        }
+        return Duration.ofMinutes(minute);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.treatment.schedulerservice.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live progress of a single generation run, updated by the partitions of the run as their chunks finish.
+ */
+public class RunProgress {
+
+    private final AtomicInteger plansTotal = new AtomicInteger(-1);
+    private final AtomicInteger plansDone = new AtomicInteger();
+    private final AtomicInteger tasksCreated = new AtomicInteger();
+    private volatile Long runId;
+
+    public void plansTotal(long plans) {
+        plansTotal.set((int) Math.min(plans, Integer.MAX_VALUE));
+    }
+
+    public void chunkDone(int plans, int tasks) {
+        plansDone.addAndGet(plans);
+        tasksCreated.addAndGet(tasks);
+    }
+
+    public void runRecorded(Long runId) {
+        this.runId = runId;
+    }
+
+    /**
+     * @return the number of plans the run will process, or {@code -1} while they are still being counted
+     */
+    public int getPlansTotal() {
+        return plansTotal.get();
+    }
+
+    public int getPlansDone() {
+        return plansDone.get();
+    }
+
+    public int getTasksCreated() {
+        return tasksCreated.get();
+    }
+
+    /**
+     * @return the id of the run's {@code scheduler_runs} row once the run has finished
+     */
+    public Long getRunId() {
+        return runId;
+    }
+}
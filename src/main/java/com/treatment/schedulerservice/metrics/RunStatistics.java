@@ -0,0 +1,69 @@
+package com.treatment.schedulerservice.metrics;
+
+import com.treatment.schedulerservice.metrics.SchedulerMetrics.Phase;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe accumulator for the statistics of a single generation run, shared by all partitions of the run.
+ * Lead times are kept in one-minute buckets up to {@code maxLeadTime}; longer lead times fall into the last bucket
+ * and tasks created after their start time are counted as late and as a lead time of zero.
+ */
+public class RunStatistics {
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final AtomicLongArray leadTimeMinutes;
+    private final LongAdder lateTasks = new LongAdder();
+
+    public RunStatistics(Duration maxLeadTime) {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+        this.leadTimeMinutes = new AtomicLongArray((int) Math.max(maxLeadTime.toMinutes(), 0) + 1);
+    }
+
+    public void addPhase(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * @return time spent in {@code phase}, summed over all partitions of the run
+     */
+    public long getPhaseMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseNanos[phase.ordinal()].sum());
+    }
+
+    public void recordLeadTime(Duration leadTime) {
+        if (leadTime.isNegative()) {
+            lateTasks.increment();
+        }
+        long minutes = Math.clamp(leadTime.toMinutes(), 0, leadTimeMinutes.length() - 1);
+        leadTimeMinutes.incrementAndGet((int) minutes);
+    }
+
+    public long getLateTasks() {
+        return lateTasks.sum();
+    }
+
+    /**
+     * @return the lower bound of the one-minute bucket holding the {@code quantile} of the recorded lead times,
+     *         or {@code null} if no task was created
+     */
+    public Duration leadTimePercentile(double quantile) {
+        return leadTimeHistogram().percentile(quantile);
+    }
+
+    /**
+     * @return a copy of the lead times recorded so far
+     */
+    public LeadTimeHistogram leadTimeHistogram() {
+        LeadTimeHistogram histogram = new LeadTimeHistogram();
+        for (int i = 0; i < leadTimeMinutes.length(); i++) {
+            histogram.add(i, leadTimeMinutes.get(i));
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,151 @@
+package com.treatment.schedulerservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer meters of the task generation pipeline. A run is timed as a whole ({@code scheduler.run.duration})
+ * and per {@link Phase} ({@code scheduler.run.phase}); alert when {@code scheduler_run_duration_seconds_max}
+ * exceeds {@code scheduler_execution_interval_seconds}. {@code scheduler.task.lead.time} measures how long before
+ * its start time a task was created; tasks created after their start time count as {@code scheduler.tasks.late}.
+ */
+@Component
+public class SchedulerMetrics {
+
+    public enum Phase {
+        FETCH, PARSE, GENERATE, DEDUP, INSERT
+    }
+
+    private final Timer runTimer;
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Counter plansProcessed;
+    private final Counter planFailures;
+    private final Counter occurrencesComputed;
+    private final Counter tasksCreated;
+    private final Counter duplicatesSkipped;
+    private final Counter insertFailures;
+    private final Counter chunkFailures;
+    private final Timer leadTime;
+    private final Counter lateTasks;
+    private final AtomicLong activePlans = new AtomicLong();
+    private final AtomicLong ownedPartitions = new AtomicLong();
+    private final AtomicLong lastRunDurationNanos = new AtomicLong();
+    private final AtomicLong lastRunPlansPerSecond = new AtomicLong();
+
+    public SchedulerMetrics(MeterRegistry registry,
+                            @Value("${scheduler.execution-interval-ms:300000}") long executionIntervalMs) {
+        this.runTimer = Timer.builder("scheduler.run.duration")
+                .description("Duration of a complete task generation run")
+                .register(registry);
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("scheduler.run.phase")
+                    .description("Time spent in one phase of task generation")
+                    .tag("phase", phase.name().toLowerCase())
+                    .register(registry));
+        }
+        this.plansProcessed = Counter.builder("scheduler.plans.processed")
+                .description("Active plans read by generation runs")
+                .register(registry);
+        this.planFailures = Counter.builder("scheduler.plans.failed")
+                .description("Plans whose occurrences could not be generated")
+                .register(registry);
+        this.occurrencesComputed = Counter.builder("scheduler.occurrences.computed")
+                .description("Occurrences computed from recurrence patterns")
+                .register(registry);
+        this.tasksCreated = Counter.builder("scheduler.tasks.created")
+                .description("Tasks inserted")
+                .register(registry);
+        this.duplicatesSkipped = Counter.builder("scheduler.tasks.duplicates.skipped")
+                .description("Occurrences skipped because their task already existed")
+                .register(registry);
+        this.insertFailures = Counter.builder("scheduler.tasks.insert.failures")
+                .description("Tasks lost because their insert batch failed")
+                .register(registry);
+        this.chunkFailures = Counter.builder("scheduler.chunks.failed")
+                .description("Chunks rolled back because of an error")
+                .register(registry);
+        this.leadTime = Timer.builder("scheduler.task.lead.time")
+                .description("Time between creation and start of a task")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofSeconds(1))
+                .maximumExpectedValue(Duration.ofDays(7))
+                .register(registry);
+        this.lateTasks = Counter.builder("scheduler.tasks.late")
+                .description("Tasks created after their start time")
+                .register(registry);
+        registry.gauge("scheduler.plans.active", activePlans);
+        registry.gauge("scheduler.partitions.owned", ownedPartitions);
+        TimeGauge.builder("scheduler.run.last.duration", lastRunDurationNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Duration of the most recent run")
+                .register(registry);
+        TimeGauge.builder("scheduler.execution.interval", () -> executionIntervalMs, TimeUnit.MILLISECONDS)
+                .description("Configured interval between scheduled runs")
+                .register(registry);
+        registry.gauge("scheduler.run.last.plans.per.second", lastRunPlansPerSecond);
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRun(long nanos, int plans) {
+        runTimer.record(nanos, TimeUnit.NANOSECONDS);
+        lastRunDurationNanos.set(nanos);
+        lastRunPlansPerSecond.set(nanos > 0 ? plans * TimeUnit.SECONDS.toNanos(1) / nanos : 0);
+    }
+
+    public void activePlans(int count) {
+        activePlans.set(count);
+    }
+
+    public void partitionsOwned(int count) {
+        ownedPartitions.set(count);
+    }
+
+    public void plansProcessed(int count) {
+        plansProcessed.increment(count);
+    }
+
+    public void planFailed() {
+        planFailures.increment();
+    }
+
+    public void occurrencesComputed(int count) {
+        occurrencesComputed.increment(count);
+    }
+
+    public void tasksCreated(int count) {
+        tasksCreated.increment(count);
+    }
+
+    public void duplicatesSkipped(int count) {
+        duplicatesSkipped.increment(count);
+    }
+
+    public void insertFailed(int count) {
+        insertFailures.increment(count);
+    }
+
+    public void taskCreated(Duration leadTimeToStart) {
+        if (leadTimeToStart.isNegative()) {
+            lateTasks.increment();
+            leadTime.record(Duration.ZERO);
+        } else {
+            leadTime.record(leadTimeToStart);
+        }
+    }
+
+    public void chunkFailed() {
+        chunkFailures.increment();
+    }
+}
@@ -0,0 +1,49 @@
+package com.treatment.schedulerservice.repository;
+
+import com.treatment.schedulerservice.entity.PartitionLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PartitionLeaseRepository extends JpaRepository<PartitionLease, Integer> {
+
+    List<PartitionLease> findByPartitionIdLessThanOrderByPartitionId(int partitionCount);
+
+    long countByPartitionIdLessThan(int partitionCount);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_partition_leases (partition_id) VALUES (:partitionId)", nativeQuery = true)
+    void insertFreeLease(@Param("partitionId") int partitionId);
+
+    /**
+     * Claims or renews a lease. The update only matches if the lease is free, expired or already held by
+     * {@code owner}, so concurrent claims of the same partition by different nodes cannot both succeed.
+     *
+     * @return 1 if {@code owner} holds the lease until {@code leaseUntil}, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE PartitionLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil " +
+           "WHERE l.partitionId = :partitionId " +
+           "AND (l.owner = :owner OR l.owner IS NULL OR l.leaseUntil IS NULL OR l.leaseUntil < :now)")
+    int claim(@Param("partitionId") int partitionId,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE PartitionLease l SET l.owner = NULL, l.leaseUntil = NULL " +
+           "WHERE l.partitionId = :partitionId AND l.owner = :owner")
+    int release(@Param("partitionId") int partitionId, @Param("owner") String owner);
+
+    @Modifying
+    @Query("UPDATE PartitionLease l SET l.owner = NULL, l.leaseUntil = NULL WHERE l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
@@ -0,0 +1,13 @@
+package com.treatment.schedulerservice.repository;
+
+import com.treatment.schedulerservice.entity.SchedulerNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerNodeRepository extends JpaRepository<SchedulerNode, String> {
+
+    long countByLastSeenAfter(LocalDateTime time);
+}
@@ -0,0 +1,23 @@
+package com.treatment.schedulerservice.repository;
+
+import com.treatment.schedulerservice.entity.SchedulerRun;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface SchedulerRunRepository extends JpaRepository<SchedulerRun, Long> {
+
+    List<SchedulerRun> findAllByOrderByStartedAtDescIdDesc(Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SchedulerRun r WHERE r.id <= :id")
+    int deleteUpToId(@Param("id") Long id);
+}
@@ -1,18 +1,96 @@
 package com.treatment.schedulerservice.repository;
 
+import com.treatment.schedulerservice.dto.ActivePlan;
 import com.treatment.schedulerservice.entity.TreatmentPlan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TreatmentPlanRepository extends JpaRepository<TreatmentPlan, Long> {
+public interface TreatmentPlanRepository extends JpaRepository<TreatmentPlan, Long>, TreatmentPlanRepositoryCustom {
 
     @Query("SELECT tp FROM TreatmentPlan tp WHERE tp.active = true " +
            "AND tp.startTime <= :currentTime " +
            "AND (tp.endTime IS NULL OR tp.endTime > :currentTime)")
     List<TreatmentPlan> findActiveValidPlans(LocalDateTime currentTime);
+
+    /**
+     * Keyset-paginated variant of {@link #findActiveValidPlans}: returns the next page of active plans
+     * of one hash partition ({@code id % partitionCount == partition}) with an id greater than
+     * {@code afterId}, ordered by id.
+     */
+    @Query("SELECT new com.treatment.schedulerservice.dto.ActivePlan(tp.id, tp.treatmentAction, tp.subjectPatient, " +
+           "tp.startTime, tp.endTime, tp.recurrencePattern, tp.generatedUntil, tp.nextFireAt) " +
+           "FROM TreatmentPlan tp WHERE tp.active = true " +
+           "AND tp.startTime <= :currentTime " +
+           "AND (tp.endTime IS NULL OR tp.endTime > :currentTime) " +
+           "AND MOD(tp.id, :partitionCount) = :partition " +
+           "AND tp.id > :afterId " +
+           "ORDER BY tp.id")
+    List<ActivePlan> findActiveValidPlansAfter(
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("partitionCount") int partitionCount,
+            @Param("partition") int partition,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    /**
+     * Counts the plans {@link #findActiveValidPlansAfter} returns for the given hash partitions.
+     */
+    @Query("SELECT COUNT(tp) FROM TreatmentPlan tp WHERE tp.active = true " +
+           "AND tp.startTime <= :currentTime " +
+           "AND (tp.endTime IS NULL OR tp.endTime > :currentTime) " +
+           "AND MOD(tp.id, :partitionCount) IN :partitions")
+    long countActiveValidPlans(
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("partitionCount") int partitionCount,
+            @Param("partitions") Collection<Integer> partitions);
+
+    /**
+     * Like {@link #findActiveValidPlansAfter}, restricted to the plans whose next fire time has passed, and
+     * paginated on {@code (nextFireAt, id)} instead of id: the next page starts after the plan
+     * {@code (afterFireAt, afterId)}. Both bounds are ranges of the {@code (next_fire_at, id)} index, so a page
+     * only reads due plans, however many plans are not due.
+     */
+    @Query("SELECT new com.treatment.schedulerservice.dto.ActivePlan(tp.id, tp.treatmentAction, tp.subjectPatient, " +
+           "tp.startTime, tp.endTime, tp.recurrencePattern, tp.generatedUntil, tp.nextFireAt) " +
+           "FROM TreatmentPlan tp WHERE tp.nextFireAt <= :currentTime " +
+           "AND tp.nextFireAt >= :afterFireAt " +
+           "AND (tp.nextFireAt > :afterFireAt OR tp.id > :afterId) " +
+           "AND tp.active = true " +
+           "AND tp.startTime <= :currentTime " +
+           "AND (tp.endTime IS NULL OR tp.endTime > :currentTime) " +
+           "AND MOD(tp.id, :partitionCount) = :partition " +
+           "ORDER BY tp.nextFireAt, tp.id")
+    List<ActivePlan> findDuePlansAfter(
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("partitionCount") int partitionCount,
+            @Param("partition") int partition,
+            @Param("afterFireAt") LocalDateTime afterFireAt,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    @Query("SELECT tp.nextFireAt FROM TreatmentPlan tp WHERE tp.id = :id AND tp.active = true")
+    Optional<LocalDateTime> findNextFireAtById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT tp.nextFireAt FROM TreatmentPlan tp " +
+           "WHERE tp.nextFireAt > :fromTime AND tp.nextFireAt <= :toTime AND tp.active = true")
+    List<LocalDateTime> findNextFireTimes(
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime);
+
+    @Modifying
+    @Query("UPDATE TreatmentPlan tp SET tp.generatedUntil = :generatedUntil WHERE tp.id IN :planIds " +
+           "AND (tp.generatedUntil IS NULL OR tp.generatedUntil < :generatedUntil)")
+    int advanceGeneratedUntil(
+            @Param("planIds") Collection<Long> planIds,
+            @Param("generatedUntil") LocalDateTime generatedUntil);
 }
@@ -0,0 +1,22 @@
+package com.treatment.schedulerservice.repository;
+
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface TreatmentPlanRepositoryCustom {
+
+    /**
+     * Sets {@code next_fire_at} of the given plans in JDBC batches; a {@code null} time means the plan has no
+     * further occurrence.
+     */
+    void updateNextFireTimes(Map<Long, LocalDateTime> nextFireTimes);
+
+    /**
+     * Inserts new plans in JDBC batches, bypassing the persistence context. Like a persisted plan, each plan first
+     * fires at its start time unless {@code nextFireAt} is set; creation and update times are set to now.
+     */
+    void insertPlans(List<TreatmentPlan> plans);
+}
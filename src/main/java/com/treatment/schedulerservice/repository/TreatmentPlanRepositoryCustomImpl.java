@@ -0,0 +1,57 @@
+package com.treatment.schedulerservice.repository;
+
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class TreatmentPlanRepositoryCustomImpl implements TreatmentPlanRepositoryCustom {
+
+    private static final String UPDATE_NEXT_FIRE_AT_SQL = "UPDATE treatment_plans SET next_fire_at = ? WHERE id = ?";
+    private static final String INSERT_PLAN_SQL = "INSERT INTO treatment_plans " +
+            "(treatment_action, subject_patient, start_time, end_time, recurrence_pattern, active, next_fire_at, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TreatmentPlanRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                             @Value("${scheduler.insert-batch-size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void updateNextFireTimes(Map<Long, LocalDateTime> nextFireTimes) {
+        if (nextFireTimes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_NEXT_FIRE_AT_SQL, nextFireTimes.entrySet(), batchSize, (ps, entry) -> {
+            ps.setTimestamp(1, entry.getValue() == null ? null : Timestamp.valueOf(entry.getValue()));
+            ps.setLong(2, entry.getKey());
+        });
+    }
+
+    @Override
+    public void insertPlans(List<TreatmentPlan> plans) {
+        if (plans.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PLAN_SQL, plans, batchSize, (ps, plan) -> {
+            ps.setString(1, plan.getTreatmentAction().name());
+            ps.setString(2, plan.getSubjectPatient());
+            ps.setTimestamp(3, Timestamp.valueOf(plan.getStartTime()));
+            ps.setTimestamp(4, plan.getEndTime() == null ? null : Timestamp.valueOf(plan.getEndTime()));
+            ps.setString(5, plan.getRecurrencePattern());
+            ps.setBoolean(6, Boolean.TRUE.equals(plan.getActive()));
+            ps.setTimestamp(7, Timestamp.valueOf(plan.getNextFireAt() == null ? plan.getStartTime() : plan.getNextFireAt()));
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+    }
+}
@@ -1,21 +1,124 @@
 package com.treatment.schedulerservice.repository;
 
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.dto.TaskKey;
 import com.treatment.schedulerservice.entity.TreatmentTask;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
 @Repository
-public interface TreatmentTaskRepository extends JpaRepository<TreatmentTask, Long> {
+public interface TreatmentTaskRepository extends JpaRepository<TreatmentTask, Long>, TreatmentTaskRepositoryCustom {
 
     @Query("SELECT tt FROM TreatmentTask tt WHERE tt.treatmentPlanId = :planId " +
            "AND tt.startTime = :startTime")
     Optional<TreatmentTask> findByTreatmentPlanIdAndStartTime(
             @Param("planId") Long planId,
             @Param("startTime") LocalDateTime startTime);
+
+    @Query("SELECT new com.treatment.schedulerservice.dto.TaskKey(tt.treatmentPlanId, tt.startTime) " +
+           "FROM TreatmentTask tt WHERE tt.treatmentPlanId IN :planIds " +
+           "AND tt.startTime >= :fromTime AND tt.startTime < :toTime")
+    List<TaskKey> findTaskKeys(
+            @Param("planIds") Collection<Long> planIds,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime);
+
+    long countByIdIn(Collection<Long> ids);
+
+    @Query("SELECT DISTINCT tt.subjectPatient FROM TreatmentTask tt WHERE tt.id IN :ids")
+    List<String> findSubjectPatientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT tt.subjectPatient FROM TreatmentTask tt WHERE tt.treatmentPlanId = :planId")
+    List<String> findSubjectPatientsByTreatmentPlanId(@Param("planId") Long planId);
+
+    /**
+     * Completes the given tasks that are not completed yet.
+     *
+     * @return the number of tasks completed by this call
+     */
+    @Modifying
+    @Query("UPDATE TreatmentTask tt SET tt.status = :completed, tt.completedAt = :completedAt " +
+           "WHERE tt.id IN :ids AND tt.status <> :completed")
+    int completeTasks(
+            @Param("ids") Collection<Long> ids,
+            @Param("completedAt") LocalDateTime completedAt,
+            @Param("completed") TaskStatus completed);
+
+    @Modifying
+    @Query("UPDATE TreatmentTask tt SET tt.status = :completed, tt.completedAt = :completedAt " +
+           "WHERE tt.treatmentPlanId = :planId AND tt.startTime >= :fromTime AND tt.startTime < :toTime " +
+           "AND tt.status <> :completed")
+    int completePlanTasks(
+            @Param("planId") Long planId,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("completedAt") LocalDateTime completedAt,
+            @Param("completed") TaskStatus completed);
+
+    @Query("SELECT COUNT(tt) FROM TreatmentTask tt WHERE tt.treatmentPlanId = :planId " +
+           "AND tt.startTime >= :fromTime AND tt.startTime < :toTime AND tt.status = :status")
+    long countPlanTasks(
+            @Param("planId") Long planId,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("status") TaskStatus status);
+
+    @Modifying
+    @Query("UPDATE TreatmentTask tt SET tt.status = :completed, tt.completedAt = :completedAt " +
+           "WHERE tt.subjectPatient = :patient AND tt.startTime >= :fromTime AND tt.startTime < :toTime " +
+           "AND tt.status <> :completed")
+    int completePatientTasks(
+            @Param("patient") String patient,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("completedAt") LocalDateTime completedAt,
+            @Param("completed") TaskStatus completed);
+
+    @Query("SELECT COUNT(tt) FROM TreatmentTask tt WHERE tt.subjectPatient = :patient " +
+           "AND tt.startTime >= :fromTime AND tt.startTime < :toTime AND tt.status = :status")
+    long countPatientTasks(
+            @Param("patient") String patient,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("status") TaskStatus status);
+
+    /**
+     * Returns the next ids, in id order, of tasks completed before {@code cutoff}.
+     */
+    @Query("SELECT tt.id FROM TreatmentTask tt WHERE tt.status = :completed AND tt.completedAt < :cutoff " +
+           "AND tt.id > :afterId ORDER BY tt.id")
+    List<Long> findCompletedTaskIdsBefore(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("afterId") Long afterId,
+            @Param("completed") TaskStatus completed,
+            Limit limit);
+
+    /**
+     * Copies the given tasks to {@code treatment_tasks_archive}; tasks archived before are skipped.
+     *
+     * @return the number of tasks copied
+     */
+    @Modifying
+    @Query(value = "INSERT INTO treatment_tasks_archive " +
+                   "(id, treatment_action, subject_patient, start_time, status, treatment_plan_id, created_at, " +
+                   "completed_at, archived_at) " +
+                   "SELECT t.id, t.treatment_action, t.subject_patient, t.start_time, t.status, t.treatment_plan_id, " +
+                   "t.created_at, t.completed_at, :archivedAt FROM treatment_tasks t WHERE t.id IN (:ids) " +
+                   "AND NOT EXISTS (SELECT 1 FROM treatment_tasks_archive a WHERE a.id = t.id)",
+           nativeQuery = true)
+    int archiveTasks(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM treatment_tasks_archive WHERE id IN (:ids)", nativeQuery = true)
+    int deleteArchivedTasks(@Param("ids") Collection<Long> ids);
 }
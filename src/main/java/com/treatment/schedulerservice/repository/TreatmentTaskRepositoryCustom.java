@@ -0,0 +1,35 @@
+package com.treatment.schedulerservice.repository;
+
+import com.treatment.schedulerservice.dto.ArchivedTask;
+import com.treatment.schedulerservice.dto.TaskCursor;
+import com.treatment.schedulerservice.dto.TaskFilter;
+import com.treatment.schedulerservice.dto.TaskView;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+
+import java.util.List;
+
+public interface TreatmentTaskRepositoryCustom {
+
+    /**
+     * Inserts the given tasks, silently skipping the ones that already exist according to the
+     * {@code uk_plan_start_time} constraint. Tasks without a creation time are stamped with the current time.
+     * The ids are drawn from {@code treatment_tasks_seq} by the statement and are not set on the given tasks.
+     *
+     * @return the given tasks that were actually inserted
+     */
+    List<TreatmentTask> insertIfAbsent(List<TreatmentTask> tasks);
+
+    /**
+     * Returns up to {@code limit} tasks matching {@code filter}, ordered by {@code (startTime, id)} and starting
+     * after {@code after} (from the first task if {@code null}). Seeking past the cursor instead of skipping an
+     * offset keeps every page as cheap as the first one; only the conditions of the non-null filter fields are
+     * added, so the query can use the matching index.
+     */
+    List<TaskView> findTasks(TaskFilter filter, TaskCursor after, int limit);
+
+    /**
+     * Returns up to {@code limit} tasks of {@code treatment_tasks_archive} with an id greater than {@code afterId},
+     * in id order.
+     */
+    List<ArchivedTask> findArchivedTasks(long afterId, int limit);
+}
@@ -0,0 +1,151 @@
+package com.treatment.schedulerservice.repository;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.dto.ArchivedTask;
+import com.treatment.schedulerservice.dto.TaskCursor;
+import com.treatment.schedulerservice.dto.TaskFilter;
+import com.treatment.schedulerservice.dto.TaskView;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+public class TreatmentTaskRepositoryCustomImpl implements TreatmentTaskRepositoryCustom {
+
+    /**
+     * Runs on PostgreSQL and on H2 in {@code MODE=PostgreSQL}, which only accepts {@code ON CONFLICT} without a
+     * conflict target. The id comes from the sequence, so {@code uk_plan_start_time} is the only constraint a row
+     * can conflict on.
+     */
+    private static final String INSERT_IF_ABSENT = "INSERT INTO treatment_tasks " +
+            "(id, treatment_plan_id, start_time, treatment_action, subject_patient, status, created_at) " +
+            "VALUES (nextval('treatment_tasks_seq'), ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public TreatmentTaskRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                             EntityManager entityManager,
+                                             @Value("${scheduler.insert-batch-size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<TreatmentTask> insertIfAbsent(List<TreatmentTask> tasks) {
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+        // the column keeps microseconds; the returned tasks carry the stored creation time
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (TreatmentTask task : tasks) {
+            if (task.getCreatedAt() == null) {
+                task.setCreatedAt(now);
+            }
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, tasks, batchSize, (ps, task) -> {
+            ps.setLong(1, task.getTreatmentPlanId());
+            ps.setTimestamp(2, Timestamp.valueOf(task.getStartTime()));
+            ps.setString(3, task.getTreatmentAction().name());
+            ps.setString(4, task.getSubjectPatient());
+            ps.setString(5, task.getStatus().name());
+            ps.setTimestamp(6, Timestamp.valueOf(task.getCreatedAt()));
+        });
+
+        List<TreatmentTask> inserted = new ArrayList<>(tasks.size());
+        int unknown = 0;
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    inserted.add(tasks.get(index));
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    unknown++;
+                }
+                index++;
+            }
+        }
+        if (unknown > 0) {
+            log.warn("The JDBC driver did not report whether {} tasks were inserted; they are not counted as created " +
+                    "(disable batch rewriting, e.g. reWriteBatchedInserts, to get per-row counts)", unknown);
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<TaskView> findTasks(TaskFilter filter, TaskCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT new com.treatment.schedulerservice.dto.TaskView(" +
+                "tt.id, tt.treatmentPlanId, tt.subjectPatient, tt.treatmentAction, tt.startTime, tt.status, " +
+                "tt.completedAt) FROM TreatmentTask tt WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.subjectPatient() != null) {
+            jpql.append(" AND tt.subjectPatient = :subjectPatient");
+            parameters.put("subjectPatient", filter.subjectPatient());
+        }
+        if (filter.status() != null) {
+            jpql.append(" AND tt.status = :status");
+            parameters.put("status", filter.status());
+        }
+        if (filter.treatmentPlanId() != null) {
+            jpql.append(" AND tt.treatmentPlanId = :treatmentPlanId");
+            parameters.put("treatmentPlanId", filter.treatmentPlanId());
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND tt.startTime >= :from");
+            parameters.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND tt.startTime < :to");
+            parameters.put("to", filter.to());
+        }
+        if (after != null) {
+            // the first condition alone bounds the index range, the second one breaks ties on equal start times
+            jpql.append(" AND tt.startTime >= :afterStartTime" +
+                    " AND (tt.startTime > :afterStartTime OR tt.id > :afterId)");
+            parameters.put("afterStartTime", after.startTime());
+            parameters.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY tt.startTime, tt.id");
+
+        TypedQuery<TaskView> query = entityManager.createQuery(jpql.toString(), TaskView.class)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<ArchivedTask> findArchivedTasks(long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, treatment_plan_id, subject_patient, treatment_action, start_time, status, created_at, " +
+                "completed_at FROM treatment_tasks_archive WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> {
+                    Timestamp completedAt = rs.getTimestamp("completed_at");
+                    return new ArchivedTask(
+                            rs.getLong("id"),
+                            rs.getLong("treatment_plan_id"),
+                            rs.getString("subject_patient"),
+                            TreatmentAction.valueOf(rs.getString("treatment_action")),
+                            rs.getTimestamp("start_time").toLocalDateTime(),
+                            TaskStatus.valueOf(rs.getString("status")),
+                            rs.getTimestamp("created_at").toLocalDateTime(),
+                            completedAt == null ? null : completedAt.toLocalDateTime());
+                },
+                afterId, limit);
+    }
+}
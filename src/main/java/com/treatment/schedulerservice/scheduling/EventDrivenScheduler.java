@@ -0,0 +1,191 @@
+package com.treatment.schedulerservice.scheduling;
+
+import com.treatment.schedulerservice.event.PlanChangedEvent;
+import com.treatment.schedulerservice.event.PlanScheduleChangedEvent;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.service.SchedulerJobService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Generates tasks only for plans whose {@code next_fire_at} has passed, waking up exactly when the earliest of
+ * them does.
+ * <p>
+ * The fire times of the next {@code scheduler.event.resync-interval-ms} are kept in memory and extended with the
+ * times computed by each run. After every wake-up the scheduler reschedules itself for the earliest known fire
+ * time, bounded by {@code scheduler.event.min-wake-interval-ms} and
+ * {@code scheduler.event.max-wake-interval-ms}. When a fire time passes, the due plans are read through the
+ * {@code next_fire_at} index. Every resync interval the in-memory times are reloaded from the database, which also
+ * picks up plans changed by other nodes and rebuilds the state after a restart. Plans saved on this node wake the
+ * scheduler as soon as they are due. Due runs go through {@link SchedulerJobService}, so they never overlap a run
+ * requested through the API; a wake-up during such a run is retried after it.
+ * <p>
+ * Wake-ups and the due runs they start execute on the scheduler's own {@code event-scheduler} thread, so a long
+ * run never holds back the jobs on the shared {@code TaskScheduler}, and those jobs never delay a wake-up.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.mode", havingValue = "event-driven", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class EventDrivenScheduler {
+
+    private final SchedulerJobService schedulerJobService;
+    private final TreatmentPlanRepository treatmentPlanRepository;
+    private final NextFireTimes nextFireTimes = new NextFireTimes();
+    // created with the bean: plans saved before the application is ready already request wake-ups
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("event-scheduler").daemon().factory());
+
+    @Value("${scheduler.event.resync-interval-ms:300000}")
+    private long resyncIntervalMs = 300_000;
+
+    @Value("${scheduler.event.min-wake-interval-ms:1000}")
+    private long minWakeIntervalMs = 1_000;
+
+    @Value("${scheduler.event.max-wake-interval-ms:300000}")
+    private long maxWakeIntervalMs = 300_000;
+
+    private volatile LocalDateTime nextResyncAt = LocalDateTime.MIN;
+    // set by plans that became due on this node, which a concurrent resync could drop from nextFireTimes
+    private final AtomicBoolean dueRequested = new AtomicBoolean();
+    private ScheduledFuture<?> nextWakeUp;
+    private LocalDateTime nextWakeUpAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wakeUpAt(LocalDateTime.now());
+    }
+
+    /**
+     * Runs the due plans (or a resync when it is time) and schedules the next wake-up.
+     */
+    public void wakeUp() {
+        ScheduledFuture<?> current = currentWakeUp();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (!now.isBefore(nextResyncAt)) {
+                dueRequested.set(false);
+                resync(now);
+            } else if (dueRequested.getAndSet(false) | nextFireTimes.pollDue(now)) {
+                runDueTasks();
+            }
+        } catch (RuntimeException e) {
+            log.error("Scheduled task generation failed: {}", e.getMessage());
+        } finally {
+            scheduleNextWakeUp(current);
+        }
+    }
+
+    @EventListener
+    public void onPlanScheduleChanged(PlanScheduleChangedEvent event) {
+        nextFireTimes.addAll(event.nextFireTimes());
+        if (!event.nextFireTimes().isEmpty()) {
+            wakeUpAt(Collections.min(event.nextFireTimes()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlanChanged(PlanChangedEvent event) {
+        treatmentPlanRepository.findNextFireAtById(event.planId()).ifPresent(fireAt -> {
+            log.debug("Plan {} changed, due at {}", event.planId(), fireAt);
+            nextFireTimes.addAll(List.of(fireAt));
+            if (!fireAt.isAfter(LocalDateTime.now())) {
+                dueRequested.set(true);
+            }
+            wakeUpAt(fireAt);
+        });
+    }
+
+    /**
+     * Interrupts a run in progress and drops the pending wake-up.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public NextFireTimes getNextFireTimes() {
+        return nextFireTimes;
+    }
+
+    public synchronized LocalDateTime getNextWakeUpAt() {
+        return nextWakeUpAt;
+    }
+
+    private void resync(LocalDateTime now) {
+        log.debug("Resynchronizing plan fire times");
+        runDueTasks();
+        LocalDateTime horizon = now.plus(Duration.ofMillis(resyncIntervalMs));
+        nextFireTimes.reset(treatmentPlanRepository.findNextFireTimes(now, horizon), horizon);
+        nextResyncAt = horizon;
+    }
+
+    private void runDueTasks() {
+        if (!schedulerJobService.runDueTasks()) {
+            log.debug("A generation run is in progress, retrying the due plans after it");
+            dueRequested.set(true);
+        }
+    }
+
+    private synchronized ScheduledFuture<?> currentWakeUp() {
+        return nextWakeUp;
+    }
+
+    private synchronized void scheduleNextWakeUp(ScheduledFuture<?> current) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliest = dueRequested.get() ? now : nextFireTimes.firstOrNull();
+        LocalDateTime next = earliest == null || earliest.isAfter(nextResyncAt) ? nextResyncAt : earliest;
+        LocalDateTime notBefore = now.plus(Duration.ofMillis(minWakeIntervalMs));
+        LocalDateTime notAfter = now.plus(Duration.ofMillis(maxWakeIntervalMs));
+        next = next.isBefore(notBefore) ? notBefore : next.isAfter(notAfter) ? notAfter : next;
+        if (nextWakeUp != current && !nextWakeUp.isDone()) {
+            // a wake-up requested by a plan change while this one was running
+            if (!nextWakeUpAt.isAfter(next)) {
+                return;
+            }
+            nextWakeUp.cancel(false);
+        }
+        schedule(next);
+    }
+
+    /**
+     * Brings the next wake-up forward to {@code time} unless one is already scheduled at or before it.
+     */
+    private synchronized void wakeUpAt(LocalDateTime time) {
+        if (nextWakeUp != null && !nextWakeUp.isDone() && !nextWakeUpAt.isAfter(time)) {
+            return;
+        }
+        if (nextWakeUp != null) {
+            nextWakeUp.cancel(false);
+        }
+        schedule(time);
+    }
+
+    private void schedule(LocalDateTime time) {
+        try {
+            long delayMs = Math.max(Duration.between(LocalDateTime.now(), time).toMillis(), 0);
+            nextWakeUp = executor.schedule(this::wakeUp, delayMs, TimeUnit.MILLISECONDS);
+            nextWakeUpAt = time;
+        } catch (RejectedExecutionException e) {
+            log.debug("Not scheduling the next wake-up, the scheduler is shutting down");
+        }
+    }
+}
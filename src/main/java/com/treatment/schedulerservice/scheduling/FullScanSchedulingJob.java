@@ -0,0 +1,27 @@
+package com.treatment.schedulerservice.scheduling;
+
+import com.treatment.schedulerservice.service.SchedulerJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scans all active plans every {@code scheduler.execution-interval-ms}. The scan is submitted as a job, so it is
+ * merged with a run requested through the API instead of overlapping it.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.mode", havingValue = "full-scan")
+@RequiredArgsConstructor
+@Slf4j
+public class FullScanSchedulingJob {
+
+    private final SchedulerJobService schedulerJobService;
+
+    @Scheduled(fixedRateString = "${scheduler.execution-interval-ms:300000}")
+    public void generateScheduledTasks() {
+        log.info("Starting scheduled task generation");
+        schedulerJobService.submit();
+    }
+}
@@ -0,0 +1,62 @@
+package com.treatment.schedulerservice.scheduling;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory, ordered set of the distinct plan fire times within the current horizon. It only decides when the
+ * scheduler wakes up; which plans are due is read from the {@code next_fire_at} index, so stale entries cause at
+ * most an empty wake-up.
+ */
+public class NextFireTimes {
+
+    private final ConcurrentSkipListSet<LocalDateTime> fireTimes = new ConcurrentSkipListSet<>();
+    private volatile LocalDateTime horizon = LocalDateTime.MIN;
+
+    /**
+     * Replaces the content with the fire times up to {@code horizon}, as loaded from the database.
+     */
+    public void reset(Collection<LocalDateTime> times, LocalDateTime horizon) {
+        fireTimes.clear();
+        this.horizon = horizon;
+        addAll(times);
+    }
+
+    /**
+     * Adds the fire times up to the current horizon; later ones are picked up by the next reset.
+     */
+    public void addAll(Collection<LocalDateTime> times) {
+        for (LocalDateTime time : times) {
+            if (!time.isAfter(horizon)) {
+                fireTimes.add(time);
+            }
+        }
+    }
+
+    /**
+     * Removes the fire times that have passed.
+     *
+     * @return whether any fire time had passed
+     */
+    public boolean pollDue(LocalDateTime now) {
+        boolean due = false;
+        LocalDateTime first;
+        while ((first = fireTimes.pollFirst()) != null) {
+            if (first.isAfter(now)) {
+                fireTimes.add(first);
+                break;
+            }
+            due = true;
+        }
+        return due;
+    }
+
+    public LocalDateTime firstOrNull() {
+        return fireTimes.ceiling(LocalDateTime.MIN);
+    }
+
+    public int size() {
+        return fireTimes.size();
+    }
+}
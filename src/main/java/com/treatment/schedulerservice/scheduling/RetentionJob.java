@@ -0,0 +1,61 @@
+package com.treatment.schedulerservice.scheduling;
+
+import com.treatment.schedulerservice.service.RetentionService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purges old completed tasks every {@code scheduler.retention.interval-ms}, starting one interval after startup.
+ * The {@link TaskArchiveJob} moves the archived tasks to segment files on its own schedule.
+ * <p>
+ * The purge pauses between chunks, so it runs on its own thread instead of the shared {@code TaskScheduler}, where
+ * it would hold back the other scheduled jobs.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.retention.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionJob {
+
+    private final RetentionService retentionService;
+
+    @Value("${scheduler.retention.interval-ms:3600000}")
+    private long intervalMs = 3_600_000;
+
+    private ScheduledExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("task-retention").daemon().factory());
+        executor.scheduleWithFixedDelay(this::purgeCompletedTasks, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void purgeCompletedTasks() {
+        try {
+            retentionService.purgeCompletedTasks();
+        } catch (RuntimeException e) {
+            // a failure must not cancel the following runs of the executor
+            log.error("Task retention failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Interrupts a purge in progress; it stops at its next pause between chunks.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.treatment.schedulerservice.scheduling;
+
+import com.treatment.schedulerservice.service.TaskArchiveService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the archived tasks to segment files every {@code scheduler.archive.interval-ms}, starting one interval
+ * after startup.
+ * <p>
+ * Writing segments is file I/O of unbounded length, so the export runs on its own thread, independent of the
+ * {@link RetentionJob} that fills the archive table and of the shared {@code TaskScheduler}.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.archive.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class TaskArchiveJob {
+
+    private final TaskArchiveService taskArchiveService;
+
+    @Value("${scheduler.archive.interval-ms:3600000}")
+    private long intervalMs = 3_600_000;
+
+    private ScheduledExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("task-archive-export").daemon().factory());
+        executor.scheduleWithFixedDelay(this::exportArchivedTasks, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void exportArchivedTasks() {
+        try {
+            taskArchiveService.exportArchivedTasks();
+        } catch (RuntimeException e) {
+            // a failure must not cancel the following runs of the executor
+            log.error("Task archive export failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.treatment.schedulerservice.service;
+
+import com.treatment.schedulerservice.entity.PartitionLease;
+import com.treatment.schedulerservice.entity.SchedulerNode;
+import com.treatment.schedulerservice.repository.PartitionLeaseRepository;
+import com.treatment.schedulerservice.repository.SchedulerNodeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns the hash partitions of the plans to scheduler nodes through leases stored in the database.
+ * <p>
+ * On every tick a node records a heartbeat, releases leases above its fair share of
+ * {@code ceil(partitions / liveNodes)}, renews the ones it keeps and claims free or expired leases up to its
+ * fair share. A lease outlives the execution interval, so it only expires when its owner stopped ticking, and is
+ * then taken over by the next tick of another node. With {@code scheduler.cluster.enabled=false} the node owns
+ * all partitions and the database is not touched.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionLeaseService {
+
+    private final PartitionLeaseRepository partitionLeaseRepository;
+    private final SchedulerNodeRepository schedulerNodeRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${scheduler.cluster.enabled:false}")
+    private boolean clusterEnabled = false;
+
+    @Value("${scheduler.cluster.node-id:}")
+    private String nodeId = "";
+
+    @Value("${scheduler.cluster.lease-duration-ms:450000}")
+    private long leaseDurationMs = 450_000;
+
+    /**
+     * @return the partitions this node may generate for in the current tick, in ascending order
+     */
+    public List<Integer> acquirePartitions(int partitionCount) {
+        if (!clusterEnabled) {
+            return IntStream.range(0, partitionCount).boxed().toList();
+        }
+        createMissingLeases(partitionCount);
+        List<Integer> owned = new TransactionTemplate(transactionManager)
+                .execute(status -> claimFairShare(partitionCount));
+        log.debug("Node {} owns partitions {}", getNodeId(), owned);
+        return owned;
+    }
+
+    /**
+     * @return whether this node holds the unexpired lease of {@code partition}; always true with
+     *         {@code scheduler.cluster.enabled=false}
+     */
+    public boolean holdsLease(int partition) {
+        if (!clusterEnabled) {
+            return true;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return partitionLeaseRepository.findById(partition)
+                .filter(lease -> getNodeId().equals(lease.getOwner()))
+                .filter(lease -> lease.getLeaseUntil() != null && lease.getLeaseUntil().isAfter(now))
+                .isPresent();
+    }
+
+    public boolean isClusterEnabled() {
+        return clusterEnabled;
+    }
+
+    public synchronized String getNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        return nodeId;
+    }
+
+    /**
+     * Hands the partitions of this node over on a graceful shutdown instead of letting them expire.
+     */
+    @PreDestroy
+    public void releasePartitions() {
+        if (!clusterEnabled) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                int released = partitionLeaseRepository.releaseAll(getNodeId());
+                schedulerNodeRepository.deleteById(getNodeId());
+                log.info("Node {} released {} partitions", getNodeId(), released);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to release partitions of node {}: {}", getNodeId(), e.getMessage());
+        }
+    }
+
+    private List<Integer> claimFairShare(int partitionCount) {
+        String owner = getNodeId();
+        LocalDateTime now = LocalDateTime.now();
+        Duration leaseDuration = Duration.ofMillis(leaseDurationMs);
+        LocalDateTime leaseUntil = now.plus(leaseDuration);
+
+        schedulerNodeRepository.save(new SchedulerNode(owner, now));
+        long liveNodes = Math.max(schedulerNodeRepository.countByLastSeenAfter(now.minus(leaseDuration)), 1);
+        int fairShare = (int) Math.ceilDiv(partitionCount, liveNodes);
+
+        List<Integer> owned = new ArrayList<>();
+        List<Integer> claimable = new ArrayList<>();
+        for (PartitionLease lease : partitionLeaseRepository.findByPartitionIdLessThanOrderByPartitionId(partitionCount)) {
+            if (owner.equals(lease.getOwner())) {
+                owned.add(lease.getPartitionId());
+            } else if (lease.getOwner() == null || lease.getLeaseUntil() == null || lease.getLeaseUntil().isBefore(now)) {
+                claimable.add(lease.getPartitionId());
+            }
+        }
+
+        while (owned.size() > fairShare) {
+            partitionLeaseRepository.release(owned.removeLast(), owner);
+        }
+        owned.removeIf(partition -> partitionLeaseRepository.claim(partition, owner, now, leaseUntil) == 0);
+        for (Integer partition : claimable) {
+            if (owned.size() >= fairShare) {
+                break;
+            }
+            if (partitionLeaseRepository.claim(partition, owner, now, leaseUntil) == 1) {
+                owned.add(partition);
+            }
+        }
+        owned.sort(null);
+        return owned;
+    }
+
+    /**
+     * Inserts the lease rows of partitions that have none yet. Nodes starting together may race on the
+     * primary key; the losing insert is ignored.
+     */
+    private void createMissingLeases(int partitionCount) {
+        if (partitionLeaseRepository.countByPartitionIdLessThan(partitionCount) == partitionCount) {
+            return;
+        }
+        for (int partition = 0; partition < partitionCount; partition++) {
+            if (partitionLeaseRepository.existsById(partition)) {
+                continue;
+            }
+            try {
+                partitionLeaseRepository.insertFreeLease(partition);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Lease of partition {} was created by another node", partition);
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.treatment.schedulerservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.treatment.schedulerservice.dto.PlanImportError;
+import com.treatment.schedulerservice.dto.PlanImportLine;
+import com.treatment.schedulerservice.dto.PlanImportResult;
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.event.PlanScheduleChangedEvent;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.service.recurrence.RecurrencePatternParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports plans from NDJSON, one plan per line. The input is read line by line and valid plans are written in
+ * JDBC batches of {@code scheduler.import.batch-size}, each committed on its own, so memory use depends on the
+ * batch size and {@code scheduler.import.max-line-length}, not on the input size. Invalid lines are reported with
+ * their line number; the first {@code scheduler.import.max-reported-errors} are listed. A batch the database
+ * rejects is retried plan by plan, so only the offending lines are reported.
+ * <p>
+ * If the input cannot be read to the end, the lines read so far are still imported and the result carries the
+ * read error, so the client knows which plans were committed.
+ */
+@Service
+@Slf4j
+public class PlanImportService {
+
+    /**
+     * Length of the VARCHAR columns of {@code treatment_plans}.
+     */
+    static final int MAX_TEXT_LENGTH = 255;
+
+    private final ObjectReader lineReader;
+    private final RecurrencePatternParser recurrencePatternParser;
+    private final TreatmentPlanRepository treatmentPlanRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${scheduler.import.batch-size:1000}")
+    private int batchSize = 1_000;
+
+    @Value("${scheduler.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1_000;
+
+    @Value("${scheduler.import.max-line-length:4096}")
+    private int maxLineLength = 4_096;
+
+    public PlanImportService(ObjectMapper objectMapper,
+                             RecurrencePatternParser recurrencePatternParser,
+                             TreatmentPlanRepository treatmentPlanRepository,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher) {
+        this.lineReader = objectMapper.readerFor(PlanImportLine.class);
+        this.recurrencePatternParser = recurrencePatternParser;
+        this.treatmentPlanRepository = treatmentPlanRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    public PlanImportResult importPlans(InputStream ndjson) {
+        ImportReport report = new ImportReport(maxReportedErrors);
+        List<TreatmentPlan> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        String readError = null;
+        try (LineReader reader = new LineReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8), maxLineLength)) {
+            while (reader.nextLine()) {
+                long lineNumber = ++report.linesRead;
+                if (reader.tooLong()) {
+                    report.failed(lineNumber, "Line exceeds " + maxLineLength + " characters");
+                    continue;
+                }
+                String line = reader.line();
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(toPlan(lineReader.readValue(line)));
+                    batchLines.add(lineNumber);
+                } catch (JsonProcessingException e) {
+                    report.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    report.failed(lineNumber, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, batchLines, report);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read plan import after line {}: {}", report.linesRead, e.getMessage());
+            readError = "Failed to read the input after line " + report.linesRead + ": " + e.getMessage();
+        }
+        writeBatch(batch, batchLines, report);
+        log.info("Imported {} plans from {} lines ({} rejected)",
+                report.plansImported, report.linesRead, report.failedLines);
+        return new PlanImportResult(report.linesRead, report.plansImported, report.failedLines, report.errors, readError);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a required field is missing or too long for its column, or the
+     *                                  recurrence pattern is invalid
+     */
+    private TreatmentPlan toPlan(PlanImportLine line) {
+        if (line.treatmentAction() == null) {
+            throw new IllegalArgumentException("treatmentAction is required");
+        }
+        if (line.subjectPatient() == null || line.subjectPatient().isBlank()) {
+            throw new IllegalArgumentException("subjectPatient is required");
+        }
+        if (line.subjectPatient().length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("subjectPatient exceeds " + MAX_TEXT_LENGTH + " characters");
+        }
+        if (line.startTime() == null) {
+            throw new IllegalArgumentException("startTime is required");
+        }
+        if (line.endTime() != null && !line.endTime().isAfter(line.startTime())) {
+            throw new IllegalArgumentException("endTime must be after startTime");
+        }
+        if (line.recurrencePattern() != null && line.recurrencePattern().length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("recurrencePattern exceeds " + MAX_TEXT_LENGTH + " characters");
+        }
+        recurrencePatternParser.parse(line.recurrencePattern());
+        return TreatmentPlan.builder()
+                .treatmentAction(line.treatmentAction())
+                .subjectPatient(line.subjectPatient())
+                .startTime(line.startTime())
+                .endTime(line.endTime())
+                .recurrencePattern(line.recurrencePattern())
+                .active(line.active() == null || line.active())
+                .build();
+    }
+
+    private void writeBatch(List<TreatmentPlan> batch, List<Long> batchLines, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+            report.plansImported += batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Batch of lines {}-{} rejected, retrying plan by plan: {}",
+                    batchLines.getFirst(), batchLines.getLast(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    insert(List.of(batch.get(i)));
+                    report.plansImported++;
+                } catch (RuntimeException lineError) {
+                    report.failed(batchLines.get(i), "Rejected by the database: " + lineError.getMessage());
+                }
+            }
+        } finally {
+            batch.clear();
+            batchLines.clear();
+        }
+    }
+
+    private void insert(List<TreatmentPlan> plans) {
+        transactionTemplate.executeWithoutResult(status -> treatmentPlanRepository.insertPlans(plans));
+        // wake the event-driven scheduler for the new plans, which first fire at their start time
+        Set<LocalDateTime> fireTimes = plans.stream()
+                .filter(TreatmentPlan::getActive)
+                .map(TreatmentPlan::getStartTime)
+                .collect(Collectors.toSet());
+        eventPublisher.publishEvent(new PlanScheduleChangedEvent(fireTimes));
+    }
+
+    private static final class ImportReport {
+
+        private final int maxErrors;
+        private final List<PlanImportError> errors = new ArrayList<>();
+        private long linesRead;
+        private long plansImported;
+        private long failedLines;
+
+        private ImportReport(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void failed(long line, String message) {
+            failedLines++;
+            if (errors.size() < maxErrors) {
+                errors.add(new PlanImportError(line, message));
+            }
+        }
+    }
+
+    /**
+     * Reads {@code \n}-terminated lines like {@link java.io.BufferedReader#readLine()}, but keeps at most
+     * {@code maxLength} characters of a line, so a body without line breaks is not buffered whole.
+     */
+    private static final class LineReader implements Closeable {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8_192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean overflow;
+
+        private LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * @return false at the end of the input
+         */
+        private boolean nextLine() throws IOException {
+            line.setLength(0);
+            overflow = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit < 0) {
+                        limit = 0;
+                        return read;
+                    }
+                }
+                read = true;
+                char c = buffer[position++];
+                if (c == '\n') {
+                    if (!overflow && !line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                        line.setLength(line.length() - 1);
+                    }
+                    return true;
+                }
+                // one extra character so that a line of maxLength followed by \r\n still fits
+                if (line.length() <= maxLength) {
+                    line.append(c);
+                } else {
+                    overflow = true;
+                }
+            }
+        }
+
+        private boolean tooLong() {
+            return overflow || line.length() > maxLength;
+        }
+
+        private String line() {
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,4 +29,35 @@ public class RecurrencePatternService {
                                                   LocalDateTime planEndTime) {
         return generator.generate(pattern, fromTime, toTime, planStartTime, planEndTime);
     }
+
+    public int fillOccurrences(RecurrencePattern pattern,
+                               long fromMinute,
+                               LocalDateTime toTime,
+                               LocalDateTime planStartTime,
+                               LocalDateTime planEndTime,
+                               long[] buffer) {
+        return generator.generateEpochMinutes(pattern, fromMinute, toTime, planStartTime, planEndTime, buffer);
+    }
+
+    public Stream<LocalDateTime> streamOccurrences(RecurrencePattern pattern,
+                                                   LocalDateTime fromTime,
+                                                   LocalDateTime planStartTime,
+                                                   LocalDateTime planEndTime) {
+        return generator.stream(pattern, fromTime, planStartTime, planEndTime);
+    }
+
+    public Optional<LocalDateTime> getNextOccurrence(RecurrencePattern pattern,
+                                                     LocalDateTime time,
+                                                     LocalDateTime planStartTime,
+                                                     LocalDateTime planEndTime) {
+        return generator.nextAfter(pattern, time, planStartTime, planEndTime);
+    }
+
+    public List<LocalDateTime> getFirstOccurrences(RecurrencePattern pattern,
+                                                   LocalDateTime fromTime,
+                                                   int maxOccurrences,
+                                                   LocalDateTime planStartTime,
+                                                   LocalDateTime planEndTime) {
+        return generator.limit(pattern, fromTime, maxOccurrences, planStartTime, planEndTime);
+    }
 }
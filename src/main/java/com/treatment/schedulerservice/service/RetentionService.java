@@ -0,0 +1,113 @@
+package com.treatment.schedulerservice.service;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.dto.RetentionResult;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes tasks completed more than {@code scheduler.retention.max-age-days} ago from {@code treatment_tasks},
+ * copying them to {@code treatment_tasks_archive} first unless {@code scheduler.retention.archive=false}.
+ * <p>
+ * Tasks are purged in id order, {@code scheduler.retention.chunk-size} at a time, each chunk in its own short
+ * transaction followed by a pause of {@code scheduler.retention.pause-ms}, so a large backlog never holds locks or
+ * transaction log space for long and leaves room for the scheduler's own writes.
+ */
+@Service
+@Slf4j
+public class RetentionService {
+
+    private final TreatmentTaskRepository treatmentTaskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter tasksArchived;
+    private final Counter tasksDeleted;
+
+    @Value("${scheduler.retention.max-age-days:90}")
+    private int maxAgeDays = 90;
+
+    @Value("${scheduler.retention.archive:true}")
+    private boolean archive = true;
+
+    @Value("${scheduler.retention.chunk-size:1000}")
+    private int chunkSize = 1_000;
+
+    @Value("${scheduler.retention.pause-ms:200}")
+    private long pauseMs = 200;
+
+    public RetentionService(TreatmentTaskRepository treatmentTaskRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.treatmentTaskRepository = treatmentTaskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tasksArchived = Counter.builder("scheduler.retention.tasks")
+                .description("Completed tasks removed from treatment_tasks by retention runs")
+                .tag("action", "archived")
+                .register(meterRegistry);
+        this.tasksDeleted = Counter.builder("scheduler.retention.tasks")
+                .description("Completed tasks removed from treatment_tasks by retention runs")
+                .tag("action", "deleted")
+                .register(meterRegistry);
+    }
+
+    public RetentionResult purgeCompletedTasks() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusDays(maxAgeDays);
+        long purged = 0;
+        long archived = 0;
+        int chunks = 0;
+        long lastId = 0L;
+        List<Long> ids;
+        do {
+            ids = treatmentTaskRepository.findCompletedTaskIdsBefore(
+                    cutoff, lastId, TaskStatus.COMPLETED, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> chunk = ids;
+            Integer chunkArchived = transactionTemplate.execute(status -> {
+                int copied = archive ? treatmentTaskRepository.archiveTasks(chunk, now) : 0;
+                treatmentTaskRepository.deleteAllByIdInBatch(chunk);
+                return copied;
+            });
+            archived += chunkArchived == null ? 0 : chunkArchived;
+            purged += chunk.size();
+            chunks++;
+            lastId = chunk.getLast();
+        } while (ids.size() == chunkSize && pause());
+
+        (archive ? tasksArchived : tasksDeleted).increment(purged);
+        RetentionResult result = new RetentionResult(
+                purged, archived, chunks, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Retention run {} {} tasks completed before {} in {} chunks ({} ms)",
+                archive ? "archived" : "deleted", purged, cutoff, chunks, result.durationMs());
+        return result;
+    }
+
+    /**
+     * @return {@code false} if the thread was interrupted, which ends the run after the committed chunks
+     */
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
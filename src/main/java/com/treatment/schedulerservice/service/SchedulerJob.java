@@ -0,0 +1,96 @@
+package com.treatment.schedulerservice.service;
+
+import com.treatment.schedulerservice.domain.JobStatus;
+import com.treatment.schedulerservice.metrics.RunProgress;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A full generation run started through {@link SchedulerJobService}, with its live progress. Requests made while
+ * the job runs are merged into it and counted in {@link #getRequests()}.
+ */
+public class SchedulerJob {
+
+    private final String id;
+    private final LocalDateTime submittedAt;
+    private final RunProgress progress = new RunProgress();
+    private final AtomicInteger requests = new AtomicInteger(1);
+    private volatile JobStatus status = JobStatus.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    SchedulerJob(String id, LocalDateTime submittedAt) {
+        this.id = id;
+        this.submittedAt = submittedAt;
+    }
+
+    void merge() {
+        requests.incrementAndGet();
+    }
+
+    void completed() {
+        finishedAt = LocalDateTime.now();
+        status = JobStatus.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = JobStatus.FAILED;
+    }
+
+    RunProgress progress() {
+        return progress;
+    }
+
+    public boolean isRunning() {
+        return status == JobStatus.RUNNING;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of plans the job processes, or {@code -1} while they are still being counted
+     */
+    public int getPlansTotal() {
+        return progress.getPlansTotal();
+    }
+
+    public int getPlansDone() {
+        return progress.getPlansDone();
+    }
+
+    public int getTasksCreated() {
+        return progress.getTasksCreated();
+    }
+
+    /**
+     * @return the id of the job's row in {@code GET /api/scheduler/runs} once it has finished
+     */
+    public Long getRunId() {
+        return progress.getRunId();
+    }
+
+    public String getError() {
+        return error;
+    }
+}
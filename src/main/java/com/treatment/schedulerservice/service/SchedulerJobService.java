@@ -0,0 +1,102 @@
+package com.treatment.schedulerservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs full generation runs in the background, one at a time. A run requested while another one is in progress
+ * is merged into it instead of scanning the plans a second time; the jobs of the last {@value #MAX_JOBS} runs are
+ * kept in memory for status queries. Runs of the due plans ({@link #runDueTasks()}) share the same guard, so no
+ * two generation runs of this node ever overlap.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerJobService {
+
+    static final int MAX_JOBS = 100;
+
+    private final TreatmentSchedulerService schedulerService;
+
+    private final Map<String, SchedulerJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SchedulerJob> eldest) {
+            return size() > MAX_JOBS;
+        }
+    });
+
+    private final Lock runLock = new ReentrantLock();
+
+    private SchedulerJob currentJob;
+
+    /**
+     * Starts a full generation run on a virtual thread, or joins the one in progress.
+     *
+     * @return the job that covers this request
+     */
+    public synchronized SchedulerJob submit() {
+        if (currentJob != null && currentJob.isRunning()) {
+            currentJob.merge();
+            log.debug("Merged run request into job {}", currentJob.getId());
+            return currentJob;
+        }
+        SchedulerJob job = new SchedulerJob(UUID.randomUUID().toString(), LocalDateTime.now());
+        jobs.put(job.getId(), job);
+        currentJob = job;
+        Thread.ofVirtual().name("scheduler-job-" + job.getId()).start(() -> run(job));
+        return job;
+    }
+
+    /**
+     * Generates the tasks of the due plans on the calling thread, unless another run is in progress. A full run
+     * covers the due plans as well, so the caller only needs to retry once it has finished.
+     *
+     * @return {@code false} if nothing was run because another run is in progress
+     */
+    public boolean runDueTasks() {
+        if (!runLock.tryLock()) {
+            return false;
+        }
+        try {
+            schedulerService.generateDueTasks();
+            return true;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public Optional<SchedulerJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(SchedulerJob job) {
+        runLock.lock();
+        try {
+            log.info("Starting scheduler job {}", job.getId());
+            schedulerService.generateTasks(job.progress());
+            job.completed();
+        } catch (Throwable e) {
+            log.error("Scheduler job {} failed", job.getId(), e);
+            job.failed(e.getMessage() != null ? e.getMessage() : e.toString());
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            // never leave a job running, or every later request would be merged into it
+            if (job.isRunning()) {
+                job.failed("Job ended unexpectedly");
+            }
+            runLock.unlock();
+        }
+    }
+}
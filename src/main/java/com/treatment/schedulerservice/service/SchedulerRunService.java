@@ -0,0 +1,163 @@
+package com.treatment.schedulerservice.service;
+
+import com.treatment.schedulerservice.dto.GenerationResult;
+import com.treatment.schedulerservice.dto.RunSummary;
+import com.treatment.schedulerservice.dto.SchedulerRunView;
+import com.treatment.schedulerservice.entity.SchedulerRun;
+import com.treatment.schedulerservice.metrics.LeadTimeHistogram;
+import com.treatment.schedulerservice.metrics.RunStatistics;
+import com.treatment.schedulerservice.metrics.SchedulerMetrics.Phase;
+import com.treatment.schedulerservice.repository.SchedulerRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerRunService {
+
+    static final int MAX_RUNS = 500;
+
+    private final SchedulerRunRepository schedulerRunRepository;
+
+    @Value("${scheduler.runs.max-history:10000}")
+    private int maxHistory = 10_000;
+
+    /**
+     * Run id from which the history is pruned again.
+     */
+    private volatile long nextPruneId;
+
+    /**
+     * Persists the report row of a finished run and drops the rows beyond the newest
+     * {@code scheduler.runs.max-history}. A failure to write the report is logged and does not fail the run,
+     * whose tasks are already committed.
+     */
+    public SchedulerRun recordRun(LocalDateTime startedAt,
+                                  long durationNanos,
+                                  GenerationResult result,
+                                  RunStatistics statistics) {
+        SchedulerRun run = SchedulerRun.builder()
+                .startedAt(startedAt)
+                .finishedAt(startedAt.plusNanos(durationNanos))
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                .plansProcessed(result.plansProcessed())
+                .tasksCreated(result.tasksCreated())
+                .chunks(result.chunks().size())
+                .failedChunks((int) result.failedChunks())
+                .lateTasks(statistics.getLateTasks())
+                .fetchMs(statistics.getPhaseMillis(Phase.FETCH))
+                .parseMs(statistics.getPhaseMillis(Phase.PARSE))
+                .generateMs(statistics.getPhaseMillis(Phase.GENERATE))
+                .dedupMs(statistics.getPhaseMillis(Phase.DEDUP))
+                .insertMs(statistics.getPhaseMillis(Phase.INSERT))
+                .leadTimeP50Seconds(toSeconds(statistics.leadTimePercentile(0.5)))
+                .leadTimeP99Seconds(toSeconds(statistics.leadTimePercentile(0.99)))
+                .leadTimeHistogram(statistics.leadTimeHistogram().encode())
+                .build();
+        try {
+            run = schedulerRunRepository.save(run);
+        } catch (RuntimeException e) {
+            log.warn("Failed to record scheduler run started at {}: {}", startedAt, e.getMessage());
+            return run;
+        }
+        pruneHistory(run.getId());
+        return run;
+    }
+
+    /**
+     * @return the most recent runs, newest first; {@code limit} is capped at {@value #MAX_RUNS}
+     */
+    public List<SchedulerRunView> findRecentRuns(int limit) {
+        return findRecentRunEntities(limit).stream().map(SchedulerRunView::of).toList();
+    }
+
+    /**
+     * Aggregates the most recent {@code limit} runs (capped at {@value #MAX_RUNS}): totals, duration and lead-time
+     * percentiles, and throughput.
+     */
+    public RunSummary summarizeRecentRuns(int limit) {
+        List<SchedulerRun> runs = findRecentRunEntities(limit);
+        if (runs.isEmpty()) {
+            return RunSummary.empty();
+        }
+        long[] durations = runs.stream().mapToLong(SchedulerRun::getDurationMs).sorted().toArray();
+        long totalDurationMs = 0;
+        long plansProcessed = 0;
+        long tasksCreated = 0;
+        long failedChunks = 0;
+        long lateTasks = 0;
+        LeadTimeHistogram leadTimes = new LeadTimeHistogram();
+        for (SchedulerRun run : runs) {
+            totalDurationMs += run.getDurationMs();
+            plansProcessed += run.getPlansProcessed();
+            tasksCreated += run.getTasksCreated();
+            failedChunks += run.getFailedChunks();
+            lateTasks += run.getLateTasks();
+            if (run.getLeadTimeHistogram() != null) {
+                leadTimes.addEncoded(run.getLeadTimeHistogram());
+            }
+        }
+        return new RunSummary(
+                runs.size(),
+                runs.getLast().getStartedAt(),
+                runs.getFirst().getStartedAt(),
+                plansProcessed,
+                tasksCreated,
+                failedChunks,
+                lateTasks,
+                totalDurationMs / runs.size(),
+                percentile(durations, 0.5),
+                percentile(durations, 0.99),
+                durations[durations.length - 1],
+                perSecond(plansProcessed, totalDurationMs),
+                perSecond(tasksCreated, totalDurationMs),
+                toSeconds(leadTimes.percentile(0.5)),
+                toSeconds(leadTimes.percentile(0.99)));
+    }
+
+    private List<SchedulerRun> findRecentRunEntities(int limit) {
+        return schedulerRunRepository.findAllByOrderByStartedAtDescIdDesc(Limit.of(Math.clamp(limit, 1, MAX_RUNS)));
+    }
+
+    /**
+     * Run ids grow with every recorded run, so the runs beyond the newest {@code maxHistory} are the ids up to
+     * {@code newestId - maxHistory} and need no query to be found. The delete runs on the first recorded run and
+     * then every {@code maxHistory / 10} runs, so the table holds up to a tenth more rows than the limit.
+     */
+    private void pruneHistory(long newestId) {
+        if (maxHistory <= 0 || newestId < nextPruneId) {
+            return;
+        }
+        nextPruneId = newestId + Math.max(maxHistory / 10, 1);
+        try {
+            schedulerRunRepository.deleteUpToId(newestId - maxHistory);
+        } catch (RuntimeException e) {
+            log.warn("Failed to prune scheduler run history: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double perSecond(long count, long durationMs) {
+        return durationMs == 0 ? 0 : count * 1000.0 / durationMs;
+    }
+
+    private static Long toSeconds(Duration duration) {
+        return duration == null ? null : duration.toSeconds();
+    }
+}
@@ -0,0 +1,170 @@
+package com.treatment.schedulerservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.treatment.schedulerservice.archive.TaskSegmentReader;
+import com.treatment.schedulerservice.archive.TaskSegmentWriter;
+import com.treatment.schedulerservice.dto.ArchivedTask;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Moves tasks from {@code treatment_tasks_archive} to append-only segment files in {@code scheduler.archive.dir}
+ * and serves audit queries from those files.
+ * <p>
+ * Each export writes segments of up to {@code scheduler.archive.segment-size} tasks and deletes the exported tasks
+ * from the table once their segment is in place. Segments are never modified, so the readers of the last
+ * {@code scheduler.archive.max-open-segments} segments used are cached. A reader holds no file handle, only its
+ * memory mapping, which is released once an evicted reader is no longer referenced. A task exported again after a
+ * crash between both steps is reported once by {@link #findTasks}.
+ * <p>
+ * In a cluster every node serves queries from {@code scheduler.archive.dir}, so the directory must be shared by all
+ * nodes and declared so with {@code scheduler.archive.shared-dir=true}; otherwise the service refuses to start.
+ * Only the holder of the lease of partition {@value #EXPORT_PARTITION} exports. Nodes give up their highest
+ * partitions first, so that lease only moves when its holder stops.
+ */
+@Service
+@Slf4j
+public class TaskArchiveService {
+
+    static final int MAX_RESULTS = 10_000;
+    static final int EXPORT_PARTITION = 0;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final Comparator<ArchivedTask> BY_START_TIME =
+            Comparator.comparing(ArchivedTask::startTime).thenComparing(ArchivedTask::id);
+
+    private final TreatmentTaskRepository treatmentTaskRepository;
+    private final PartitionLeaseService partitionLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Path, TaskSegmentReader> readers;
+
+    @Value("${scheduler.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${scheduler.archive.dir:task-archive}")
+    private Path directory = Path.of("task-archive");
+
+    @Value("${scheduler.archive.segment-size:100000}")
+    private int segmentSize = 100_000;
+
+    @Value("${scheduler.archive.min-segment-size:10000}")
+    private int minSegmentSize = 10_000;
+
+    @Value("${scheduler.archive.shared-dir:false}")
+    private boolean sharedDirectory = false;
+
+    public TaskArchiveService(TreatmentTaskRepository treatmentTaskRepository,
+                              PartitionLeaseService partitionLeaseService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${scheduler.archive.max-open-segments:256}") long maxOpenSegments) {
+        this.treatmentTaskRepository = treatmentTaskRepository;
+        this.partitionLeaseService = partitionLeaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readers = Caffeine.newBuilder()
+                .maximumSize(maxOpenSegments)
+                .build();
+    }
+
+    /**
+     * @throws IllegalStateException in cluster mode unless the archive directory is declared shared
+     */
+    @PostConstruct
+    void checkDirectory() {
+        if (enabled && partitionLeaseService.isClusterEnabled() && !sharedDirectory) {
+            throw new IllegalStateException("scheduler.archive.dir (" + directory + ") must be shared by all nodes " +
+                    "in cluster mode: set scheduler.archive.shared-dir=true once it is, or scheduler.archive.enabled=false");
+        }
+    }
+
+    /**
+     * Exports the tasks of {@code treatment_tasks_archive} in id order. Fewer remaining tasks than
+     * {@code scheduler.archive.min-segment-size} are left for a later export, so segments stay large enough to
+     * compress well. In a cluster, nodes other than the holder of the export lease export nothing.
+     *
+     * @return the number of tasks exported
+     */
+    public long exportArchivedTasks() {
+        if (!enabled) {
+            return 0;
+        }
+        long exported = 0;
+        long lastId = 0;
+        List<ArchivedTask> tasks;
+        try {
+            Files.createDirectories(directory);
+            // the lease is checked before each segment, so a node that lost it stops writing
+            while (partitionLeaseService.holdsLease(EXPORT_PARTITION)
+                    && !(tasks = treatmentTaskRepository.findArchivedTasks(lastId, segmentSize)).isEmpty()
+                    && tasks.size() >= Math.min(minSegmentSize, segmentSize)) {
+                Path file = directory.resolve("tasks-%019d-%019d%s".formatted(
+                        tasks.getFirst().id(), tasks.getLast().id(), SEGMENT_SUFFIX));
+                TaskSegmentWriter.write(file, tasks);
+                List<Long> ids = tasks.stream().map(ArchivedTask::id).toList();
+                transactionTemplate.executeWithoutResult(status -> treatmentTaskRepository.deleteArchivedTasks(ids));
+                log.info("Exported {} archived tasks to {} ({} bytes)", tasks.size(), file, Files.size(file));
+                exported += tasks.size();
+                lastId = tasks.getLast().id();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write task segment to " + directory, e);
+        }
+        return exported;
+    }
+
+    /**
+     * Returns up to {@code limit} exported tasks starting in {@code [from, to)}, ordered by start time and id;
+     * {@code limit} is capped at {@value #MAX_RESULTS}.
+     */
+    public List<ArchivedTask> findTasks(String subjectPatient, LocalDateTime from, LocalDateTime to, int limit) {
+        int maxResults = Math.clamp(limit, 1, MAX_RESULTS);
+        List<ArchivedTask> found = new ArrayList<>();
+        for (TaskSegmentReader reader : segments()) {
+            found.addAll(reader.find(subjectPatient, from, to, maxResults));
+        }
+        Set<Long> seen = new HashSet<>();
+        return found.stream()
+                .sorted(BY_START_TIME)
+                .filter(task -> seen.add(task.id()))
+                .limit(maxResults)
+                .toList();
+    }
+
+    private List<TaskSegmentReader> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .map(file -> readers.get(file, TaskArchiveService::open))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list task segments in " + directory, e);
+        }
+    }
+
+    private static TaskSegmentReader open(Path file) {
+        try {
+            return TaskSegmentReader.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open task segment " + file, e);
+        }
+    }
+}
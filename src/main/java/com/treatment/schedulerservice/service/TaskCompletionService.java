@@ -0,0 +1,132 @@
+package com.treatment.schedulerservice.service;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.dto.TaskCompletionRequest;
+import com.treatment.schedulerservice.dto.TaskCompletionResult;
+import com.treatment.schedulerservice.event.TasksChangedEvent;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Completes tasks with set-based updates instead of loading and saving every task. Ids are deduplicated and
+ * completed in batches of {@code scheduler.completion.batch-size}, each with one {@code UPDATE} in its own short
+ * transaction. Completing is idempotent: tasks that are already completed keep their {@code completed_at} and are
+ * counted as such, so a device can safely resend a burst. A {@link TasksChangedEvent} naming the patients of the
+ * completed tasks is published after each transaction that completed any.
+ */
+@Service
+@Slf4j
+public class TaskCompletionService {
+
+    static final int MAX_TASK_IDS = 10_000;
+
+    private final TreatmentTaskRepository treatmentTaskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${scheduler.completion.batch-size:1000}")
+    private int batchSize = 1_000;
+
+    public TaskCompletionService(TreatmentTaskRepository treatmentTaskRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.treatmentTaskRepository = treatmentTaskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request names neither ids nor exactly one plan or patient with a
+     *                                  time range, or more than {@value #MAX_TASK_IDS} ids
+     */
+    public TaskCompletionResult complete(TaskCompletionRequest request) {
+        LocalDateTime completedAt = request.completedAt() != null ? request.completedAt() : LocalDateTime.now();
+        boolean byIds = request.taskIds() != null && !request.taskIds().isEmpty();
+        boolean byRange = request.planId() != null || request.patient() != null;
+        if (byIds == byRange) {
+            throw new IllegalArgumentException("Specify either taskIds or a planId or patient with from and to");
+        }
+        TaskCompletionResult result = byIds
+                ? completeByIds(request.taskIds(), completedAt)
+                : completeByRange(request, completedAt);
+        log.info("Completed {} tasks ({} already completed, {} missing)",
+                result.updated(), result.alreadyCompleted(), result.missing());
+        return result;
+    }
+
+    private TaskCompletionResult completeByIds(List<Long> taskIds, LocalDateTime completedAt) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(taskIds));
+        ids.removeIf(Objects::isNull);
+        if (ids.size() > MAX_TASK_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_TASK_IDS + " task ids per request");
+        }
+        TaskCompletionResult result = new TaskCompletionResult(0, 0, 0);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Set<String> patients = new HashSet<>();
+            result = result.plus(transactionTemplate.execute(status -> {
+                long existing = treatmentTaskRepository.countByIdIn(batch);
+                int updated = treatmentTaskRepository.completeTasks(batch, completedAt, TaskStatus.COMPLETED);
+                if (updated > 0) {
+                    patients.addAll(treatmentTaskRepository.findSubjectPatientsByIdIn(batch));
+                }
+                return new TaskCompletionResult(updated, existing - updated, batch.size() - existing);
+            }));
+            publishTasksChanged(patients);
+        }
+        return result;
+    }
+
+    private TaskCompletionResult completeByRange(TaskCompletionRequest request, LocalDateTime completedAt) {
+        if (request.planId() != null && request.patient() != null) {
+            throw new IllegalArgumentException("Specify either planId or patient, not both");
+        }
+        if (request.from() == null || request.to() == null || !request.from().isBefore(request.to())) {
+            throw new IllegalArgumentException("A range completion requires from before to");
+        }
+        Set<String> patients = new HashSet<>();
+        TaskCompletionResult result = transactionTemplate.execute(status -> {
+            long alreadyCompleted;
+            int updated;
+            if (request.planId() != null) {
+                alreadyCompleted = treatmentTaskRepository.countPlanTasks(
+                        request.planId(), request.from(), request.to(), TaskStatus.COMPLETED);
+                updated = treatmentTaskRepository.completePlanTasks(
+                        request.planId(), request.from(), request.to(), completedAt, TaskStatus.COMPLETED);
+                if (updated > 0) {
+                    patients.addAll(treatmentTaskRepository.findSubjectPatientsByTreatmentPlanId(request.planId()));
+                }
+            } else {
+                alreadyCompleted = treatmentTaskRepository.countPatientTasks(
+                        request.patient(), request.from(), request.to(), TaskStatus.COMPLETED);
+                updated = treatmentTaskRepository.completePatientTasks(
+                        request.patient(), request.from(), request.to(), completedAt, TaskStatus.COMPLETED);
+                if (updated > 0) {
+                    patients.add(request.patient());
+                }
+            }
+            return new TaskCompletionResult(updated, alreadyCompleted, 0);
+        });
+        publishTasksChanged(patients);
+        return result;
+    }
+
+    private void publishTasksChanged(Set<String> patients) {
+        if (!patients.isEmpty()) {
+            eventPublisher.publishEvent(new TasksChangedEvent(patients));
+        }
+    }
+}
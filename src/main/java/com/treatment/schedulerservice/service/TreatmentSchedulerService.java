@@ -1,97 +1,422 @@
 package com.treatment.schedulerservice.service;
 
 import com.treatment.schedulerservice.domain.TaskStatus;
-import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.dto.ActivePlan;
+import com.treatment.schedulerservice.dto.ChunkResult;
+import com.treatment.schedulerservice.dto.GenerationResult;
+import com.treatment.schedulerservice.dto.TaskKey;
 import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.event.PlanScheduleChangedEvent;
+import com.treatment.schedulerservice.event.TasksChangedEvent;
+import com.treatment.schedulerservice.helper.EpochMinutes;
 import com.treatment.schedulerservice.helper.RecurrencePattern;
+import com.treatment.schedulerservice.metrics.RunProgress;
+import com.treatment.schedulerservice.metrics.RunStatistics;
+import com.treatment.schedulerservice.metrics.SchedulerMetrics;
+import com.treatment.schedulerservice.metrics.SchedulerMetrics.Phase;
 import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
 import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TreatmentSchedulerService {
 
+    /**
+     * Lower bound of the first page of due plans, earlier than any {@code next_fire_at}.
+     */
+    private static final LocalDateTime FIRST_FIRE_TIME = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final int OCCURRENCE_BUFFER_SIZE = 64;
+    private static final long[] NO_START_MINUTES = new long[0];
+
     private final TreatmentPlanRepository treatmentPlanRepository;
     private final TreatmentTaskRepository treatmentTaskRepository;
     private final RecurrencePatternService recurrencePatternService;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final SchedulerMetrics schedulerMetrics;
+    private final SchedulerRunService schedulerRunService;
+    private final PartitionLeaseService partitionLeaseService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${scheduler.look-ahead-hours:1}")
     private int lookAheadHours = 1;
 
-    @Scheduled(fixedRateString = "${scheduler.execution-interval-ms:300000}")
-    @Transactional
-    public void generateScheduledTasks() {
-        log.info("Starting scheduled task generation");
-        generateTasksNow();
-    }
+    @Value("${scheduler.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${scheduler.partitions:1}")
+    private int partitions = 1;
+
+    @Value("${scheduler.parallelism:1}")
+    private int parallelism = 1;
+
+    @Value("${scheduler.execution-interval-ms:300000}")
+    private long retryDelayMs = 300_000;
 
-    @Transactional
     public int generateTasksNow() {
+        return generateTasks().tasksCreated();
+    }
+
+    /**
+     * Generates tasks for all active plans. Plans are split into {@code scheduler.partitions} hash partitions
+     * on id, which are processed concurrently on virtual threads with at most {@code scheduler.parallelism}
+     * partitions (and therefore DB connections) active at a time. Within a partition plans are read page by
+     * page (keyset pagination on id) and every page of {@code scheduler.chunk-size} plans is committed in its
+     * own transaction, so memory is bounded by the page size and a failing chunk only loses its own tasks.
+     * In a cluster only the partitions leased by this node are processed (see {@link PartitionLeaseService}).
+     */
+    public GenerationResult generateTasks() {
+        return generateTasks(false, new RunProgress(), false);
+    }
+
+    /**
+     * Like {@link #generateTasks()}, reporting into {@code progress} the number of plans to process (counted
+     * up front) and the plans and tasks done as chunks commit.
+     */
+    public GenerationResult generateTasks(RunProgress progress) {
+        return generateTasks(false, progress, true);
+    }
+
+    /**
+     * Like {@link #generateTasks()}, but only for the plans whose {@code next_fire_at} has passed. The plans are
+     * paged in {@code (next_fire_at, id)} order through the matching index, so the cost depends on the number of
+     * due plans only.
+     */
+    public GenerationResult generateDueTasks() {
+        return generateTasks(true, new RunProgress(), false);
+    }
+
+    private GenerationResult generateTasks(boolean dueOnly, RunProgress progress, boolean countPlans) {
+        long runStart = System.nanoTime();
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime lookAheadTime = now.plusHours(lookAheadHours);
-        
-        List<TreatmentPlan> activePlans = treatmentPlanRepository.findActiveValidPlans(now);
-        log.info("Found {} active treatment plans", activePlans.size());
-        
-        int totalTasksGenerated = 0;
-        for (TreatmentPlan plan : activePlans) {
-            totalTasksGenerated += generateTasksForPlan(plan, now, lookAheadTime);
+        RunStatistics statistics = new RunStatistics(Duration.ofHours(lookAheadHours));
+
+        List<Integer> ownedPartitions = partitionLeaseService.acquirePartitions(partitions);
+        schedulerMetrics.partitionsOwned(ownedPartitions.size());
+        if (countPlans) {
+            progress.plansTotal(ownedPartitions.isEmpty()
+                    ? 0
+                    : treatmentPlanRepository.countActiveValidPlans(now, partitions, ownedPartitions));
+        }
+        List<ChunkResult> chunkResults = ownedPartitions.size() == 1
+                ? processPartition(dueOnly, partitions, ownedPartitions.getFirst(), now, lookAheadTime, statistics, progress)
+                : processPartitionsConcurrently(dueOnly, ownedPartitions, now, lookAheadTime, statistics, progress);
+
+        GenerationResult result = new GenerationResult(chunkResults);
+        long durationNanos = System.nanoTime() - runStart;
+        if (dueOnly && result.plansProcessed() == 0) {
+            return result;
+        }
+        schedulerMetrics.recordRun(durationNanos, result.plansProcessed());
+        if (!dueOnly) {
+            schedulerMetrics.activePlans(result.plansProcessed());
+        }
+        progress.runRecorded(schedulerRunService.recordRun(now, durationNanos, result, statistics).getId());
+        log.info("Processed {} {} treatment plans", result.plansProcessed(), dueOnly ? "due" : "active");
+        if (result.failedChunks() > 0) {
+            log.warn("{} of {} chunks failed", result.failedChunks(), chunkResults.size());
+        }
+        log.info("Generated {} total tasks", result.tasksCreated());
+        return result;
+    }
+
+    private List<ChunkResult> processPartitionsConcurrently(boolean dueOnly,
+                                                            List<Integer> ownedPartitions,
+                                                            LocalDateTime fromTime,
+                                                            LocalDateTime toTime,
+                                                            RunStatistics statistics,
+                                                            RunProgress progress) {
+        Semaphore connectionPermits = new Semaphore(Math.max(parallelism, 1));
+        List<Future<List<ChunkResult>>> futures = new ArrayList<>(ownedPartitions.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int partition : ownedPartitions) {
+                futures.add(executor.submit(() -> {
+                    connectionPermits.acquire();
+                    try {
+                        return processPartition(dueOnly, partitions, partition, fromTime, toTime, statistics, progress);
+                    } finally {
+                        connectionPermits.release();
+                    }
+                }));
+            }
+        }
+
+        List<ChunkResult> chunkResults = new ArrayList<>();
+        for (int i = 0; i < ownedPartitions.size(); i++) {
+            int partition = ownedPartitions.get(i);
+            try {
+                chunkResults.addAll(futures.get(i).get());
+            } catch (ExecutionException e) {
+                log.error("Failed to process partition {}: {}", partition, e.getCause().getMessage());
+                chunkResults.add(ChunkResult.failed(partition, 0, 0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for partition " + partition, e);
+            }
+        }
+        return chunkResults;
+    }
+
+    private List<ChunkResult> processPartition(boolean dueOnly,
+                                               int partitionCount,
+                                               int partition,
+                                               LocalDateTime fromTime,
+                                               LocalDateTime toTime,
+                                               RunStatistics statistics,
+                                               RunProgress progress) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<ChunkResult> chunkResults = new ArrayList<>();
+        long lastPlanId = 0L;
+        LocalDateTime lastFireAt = FIRST_FIRE_TIME;
+        List<ActivePlan> chunk;
+        do {
+            long fetchStart = System.nanoTime();
+            chunk = dueOnly
+                    ? treatmentPlanRepository.findDuePlansAfter(
+                            fromTime, partitionCount, partition, lastFireAt, lastPlanId, Limit.of(chunkSize))
+                    : treatmentPlanRepository.findActiveValidPlansAfter(
+                            fromTime, partitionCount, partition, lastPlanId, Limit.of(chunkSize));
+            recordPhase(statistics, Phase.FETCH, System.nanoTime() - fetchStart);
+            schedulerMetrics.plansProcessed(chunk.size());
+            if (chunk.isEmpty()) {
+                break;
+            }
+            int chunkIndex = chunkResults.size();
+            ChunkResult chunkResult = processChunk(transactionTemplate, partition, chunkIndex, chunk, fromTime, toTime, statistics);
+            chunkResults.add(chunkResult);
+            progress.chunkDone(chunkResult.plansProcessed(), chunkResult.tasksCreated());
+            lastPlanId = chunk.getLast().id();
+            lastFireAt = chunk.getLast().nextFireAt();
+        } while (chunk.size() == chunkSize);
+        return chunkResults;
+    }
+
+    private ChunkResult processChunk(TransactionTemplate transactionTemplate,
+                                     int partition,
+                                     int chunkIndex,
+                                     List<ActivePlan> chunk,
+                                     LocalDateTime fromTime,
+                                     LocalDateTime toTime,
+                                     RunStatistics statistics) {
+        Map<Long, LocalDateTime> nextFireTimes = new HashMap<>(chunk.size() * 2);
+        Set<String> changedPatients = new HashSet<>();
+        try {
+            Integer tasksCreated = transactionTemplate.execute(status -> {
+                Map<Long, long[]> existingStartMinutes = loadExistingStartMinutes(chunk, fromTime, toTime);
+                long[] occurrenceBuffer = new long[OCCURRENCE_BUFFER_SIZE];
+                List<TreatmentTask> pendingTasks = new ArrayList<>();
+                List<Long> generatedPlanIds = new ArrayList<>(chunk.size());
+                for (ActivePlan plan : chunk) {
+                    if (generateTasksForPlan(plan, fromTime, toTime, existingStartMinutes.getOrDefault(plan.id(), NO_START_MINUTES),
+                            occurrenceBuffer, pendingTasks, nextFireTimes, statistics)) {
+                        generatedPlanIds.add(plan.id());
+                    }
+                }
+                int inserted = saveTasks(pendingTasks, statistics, changedPatients);
+                if (!generatedPlanIds.isEmpty()) {
+                    treatmentPlanRepository.advanceGeneratedUntil(generatedPlanIds, toTime);
+                }
+                treatmentPlanRepository.updateNextFireTimes(nextFireTimes);
+                entityManager.clear();
+                return inserted;
+            });
+            eventPublisher.publishEvent(new PlanScheduleChangedEvent(nextFireTimes.values().stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet())));
+            if (!changedPatients.isEmpty()) {
+                eventPublisher.publishEvent(new TasksChangedEvent(changedPatients));
+            }
+            return new ChunkResult(partition, chunkIndex, chunk.size(), tasksCreated == null ? 0 : tasksCreated, false);
+        } catch (RuntimeException e) {
+            schedulerMetrics.chunkFailed();
+            log.error("Failed to process chunk {} of partition {} ({} plans): {}",
+                    chunkIndex, partition, chunk.size(), e.getMessage());
+            return ChunkResult.failed(partition, chunkIndex, chunk.size());
+        }
+    }
+
+    /**
+     * Loads the start times of tasks already generated inside the look-ahead window for the plans that have no
+     * watermark yet, with a single query, as sorted epoch-minutes per plan so occurrences can be de-duplicated
+     * without converting them. Plans with a watermark only generate the slice after it, which cannot contain
+     * tasks of earlier runs.
+     */
+    private Map<Long, long[]> loadExistingStartMinutes(List<ActivePlan> plans, LocalDateTime fromTime, LocalDateTime toTime) {
+        List<Long> planIds = plans.stream()
+                .filter(plan -> plan.generatedUntil() == null)
+                .map(ActivePlan::id)
+                .toList();
+        if (planIds.isEmpty()) {
+            return Map.of();
         }
-        
-        log.info("Generated {} total tasks", totalTasksGenerated);
-        return totalTasksGenerated;
+        return treatmentTaskRepository.findTaskKeys(planIds, fromTime, toTime).stream()
+                // occurrences fall on whole minutes, so a task off the minute can never collide with one
+                .filter(key -> key.startTime().getSecond() == 0 && key.startTime().getNano() == 0)
+                .collect(Collectors.groupingBy(TaskKey::treatmentPlanId, Collectors.collectingAndThen(
+                        Collectors.toList(),
+                        keys -> keys.stream().mapToLong(key -> EpochMinutes.floor(key.startTime())).sorted().toArray())));
     }
 
-    private int generateTasksForPlan(TreatmentPlan plan, LocalDateTime fromTime, LocalDateTime toTime) {
+    /**
+     * Generates the tasks of one plan for {@code [max(generatedUntil, fromTime), toTime)} and records the plan's
+     * next fire time in {@code nextFireTimes}. Occurrences are computed as epoch-minutes into {@code occurrenceBuffer}
+     * and only converted to a {@link LocalDateTime} for tasks that are actually created. A plan that fails is
+     * retried after the execution interval.
+     *
+     * @return whether the plan was processed and its watermark may be advanced to {@code toTime}
+     */
+    private boolean generateTasksForPlan(ActivePlan plan,
+                                         LocalDateTime fromTime,
+                                         LocalDateTime toTime,
+                                         long[] existingStartMinutes,
+                                         long[] occurrenceBuffer,
+                                         List<TreatmentTask> pendingTasks,
+                                         Map<Long, LocalDateTime> nextFireTimes,
+                                         RunStatistics statistics) {
+        LocalDateTime planFromTime = plan.generatedUntil() != null && plan.generatedUntil().isAfter(fromTime)
+                ? plan.generatedUntil()
+                : fromTime;
         try {
-            RecurrencePattern pattern = recurrencePatternService.parsePattern(plan.getRecurrencePattern());
-            List<LocalDateTime> occurrences = recurrencePatternService.getNextOccurrences(
-                    pattern, fromTime, toTime, plan.getStartTime(), plan.getEndTime());
-            
+            long parseStart = System.nanoTime();
+            RecurrencePattern pattern = recurrencePatternService.parsePattern(plan.recurrencePattern());
+            recordPhase(statistics, Phase.PARSE, System.nanoTime() - parseStart);
+            if (!planFromTime.isBefore(toTime)) {
+                nextFireTimes.put(plan.id(), nextFireTime(pattern, plan, planFromTime, statistics));
+                return false;
+            }
+            long generateNanos = 0L;
+            long dedupNanos = 0L;
+            long fromMinute = EpochMinutes.ceil(planFromTime);
+            int occurrences = 0;
             int tasksCreated = 0;
-            for (LocalDateTime occurrence : occurrences) {
-                if (treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(plan.getId(), occurrence).isEmpty()) {
-                    createTreatmentTask(plan, occurrence);
-                    tasksCreated++;
+            int count;
+            do {
+                long generateStart = System.nanoTime();
+                count = recurrencePatternService.fillOccurrences(
+                        pattern, fromMinute, toTime, plan.startTime(), plan.endTime(), occurrenceBuffer);
+                long dedupStart = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    long occurrence = occurrenceBuffer[i];
+                    if (Arrays.binarySearch(existingStartMinutes, occurrence) < 0) {
+                        pendingTasks.add(createTreatmentTask(plan, EpochMinutes.toLocalDateTime(occurrence)));
+                        tasksCreated++;
+                    }
                 }
-            }
+                generateNanos += dedupStart - generateStart;
+                dedupNanos += System.nanoTime() - dedupStart;
+                occurrences += count;
+                if (count > 0) {
+                    fromMinute = occurrenceBuffer[count - 1] + 1;
+                }
+            } while (count == occurrenceBuffer.length);
+            recordPhase(statistics, Phase.GENERATE, generateNanos);
+            recordPhase(statistics, Phase.DEDUP, dedupNanos);
+            schedulerMetrics.occurrencesComputed(occurrences);
+            schedulerMetrics.duplicatesSkipped(occurrences - tasksCreated);
             
             if (tasksCreated > 0) {
-                log.info("Generated {} tasks for plan ID {} (patient: {})", 
-                        tasksCreated, plan.getId(), plan.getSubjectPatient());
+                log.debug("Prepared {} tasks for plan ID {} (patient: {})",
+                        tasksCreated, plan.id(), plan.subjectPatient());
             }
-            
-            return tasksCreated;
+            nextFireTimes.put(plan.id(), nextFireTime(pattern, plan, toTime, statistics));
+            return true;
         } catch (Exception e) {
-            log.error("Failed to generate tasks for plan ID {}: {}", plan.getId(), e.getMessage());
-            return 0;
+            schedulerMetrics.planFailed();
+            log.error("Failed to generate tasks for plan ID {}: {}", plan.id(), e.getMessage());
+            nextFireTimes.put(plan.id(), fromTime.plus(Duration.ofMillis(retryDelayMs)));
+            return false;
         }
     }
 
-    private void createTreatmentTask(TreatmentPlan plan, LocalDateTime startTime) {
-        TreatmentTask task = TreatmentTask.builder()
-                .treatmentAction(plan.getTreatmentAction())
-                .subjectPatient(plan.getSubjectPatient())
+    /**
+     * @return when the first occurrence at or after {@code generatedUntil} enters the look-ahead window, or
+     *         {@code null} if the plan has no further occurrence
+     */
+    private LocalDateTime nextFireTime(RecurrencePattern pattern,
+                                       ActivePlan plan,
+                                       LocalDateTime generatedUntil,
+                                       RunStatistics statistics) {
+        long start = System.nanoTime();
+        List<LocalDateTime> next = recurrencePatternService.getFirstOccurrences(
+                pattern, generatedUntil, 1, plan.startTime(), plan.endTime());
+        recordPhase(statistics, Phase.GENERATE, System.nanoTime() - start);
+        return next.isEmpty() ? null : next.getFirst().minusHours(lookAheadHours);
+    }
+
+    private TreatmentTask createTreatmentTask(ActivePlan plan, LocalDateTime startTime) {
+        return TreatmentTask.builder()
+                .treatmentAction(plan.treatmentAction())
+                .subjectPatient(plan.subjectPatient())
                 .startTime(startTime)
                 .status(TaskStatus.ACTIVE)
-                .treatmentPlanId(plan.getId())
+                .treatmentPlanId(plan.id())
                 .build();
+    }
 
+    /**
+     * Writes a chunk of tasks in JDBC batches. Tasks created concurrently by another run are skipped by
+     * the database instead of failing the chunk. The patients of the inserted tasks are added to
+     * {@code changedPatients}.
+     */
+    private int saveTasks(List<TreatmentTask> tasks, RunStatistics statistics, Set<String> changedPatients) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        tasks.forEach(task -> task.setCreatedAt(createdAt));
+        long insertStart = System.nanoTime();
+        List<TreatmentTask> insertedTasks;
         try {
-            treatmentTaskRepository.save(task);
-            log.debug("Created task for patient {} at {}", plan.getSubjectPatient(), startTime);
-        } catch (org.springframework.dao.DataIntegrityViolationException e) {
-            log.debug("Task already exists for plan {} at {} (unique constraint)", plan.getId(), startTime);
+            insertedTasks = treatmentTaskRepository.insertIfAbsent(tasks);
+        } catch (RuntimeException e) {
+            schedulerMetrics.insertFailed(tasks.size());
+            throw e;
+        } finally {
+            recordPhase(statistics, Phase.INSERT, System.nanoTime() - insertStart);
         }
+        for (TreatmentTask task : insertedTasks) {
+            changedPatients.add(task.getSubjectPatient());
+            Duration leadTime = Duration.between(task.getCreatedAt(), task.getStartTime());
+            schedulerMetrics.taskCreated(leadTime);
+            statistics.recordLeadTime(leadTime);
+        }
+        int inserted = insertedTasks.size();
+        schedulerMetrics.tasksCreated(inserted);
+        schedulerMetrics.duplicatesSkipped(tasks.size() - inserted);
+        log.info("Created {} tasks ({} already existed)", inserted, tasks.size() - inserted);
+        return inserted;
+    }
+
+    private void recordPhase(RunStatistics statistics, Phase phase, long nanos) {
+        schedulerMetrics.recordPhase(phase, nanos);
+        statistics.addPhase(phase, nanos);
     }
 }
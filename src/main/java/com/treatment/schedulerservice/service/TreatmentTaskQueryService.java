@@ -0,0 +1,40 @@
+package com.treatment.schedulerservice.service;
+
+import com.treatment.schedulerservice.dto.TaskCursor;
+import com.treatment.schedulerservice.dto.TaskFilter;
+import com.treatment.schedulerservice.dto.TaskPage;
+import com.treatment.schedulerservice.dto.TaskView;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TreatmentTaskQueryService {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final TreatmentTaskRepository treatmentTaskRepository;
+
+    /**
+     * Returns the page of tasks after {@code cursor} (the {@code nextCursor} of the previous page, or {@code null}
+     * for the first page); {@code limit} is capped at {@value #MAX_PAGE_SIZE}.
+     *
+     * @throws IllegalArgumentException if {@code cursor} is malformed
+     */
+    @Transactional(readOnly = true)
+    public TaskPage findTasks(TaskFilter filter, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        TaskCursor after = cursor == null || cursor.isBlank() ? null : TaskCursor.decode(cursor);
+        // one extra row tells whether there is a next page
+        List<TaskView> tasks = treatmentTaskRepository.findTasks(filter, after, pageSize + 1);
+        if (tasks.size() <= pageSize) {
+            return new TaskPage(tasks, null);
+        }
+        List<TaskView> page = tasks.subList(0, pageSize);
+        return new TaskPage(List.copyOf(page), TaskCursor.of(page.getLast()).encode());
+    }
+}
@@ -0,0 +1,91 @@
+package com.treatment.schedulerservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.dto.TaskFilter;
+import com.treatment.schedulerservice.dto.TaskView;
+import com.treatment.schedulerservice.event.TasksChangedEvent;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Answers "what is due for this patient in the next hours" from a read-through cache of each patient's active
+ * tasks, so refreshing a nurse-station screen does not query {@code treatment_tasks} every time.
+ * <p>
+ * An entry holds up to {@value #MAX_CACHED_TASKS} active tasks starting within
+ * {@code scheduler.upcoming-cache.horizon-hours} plus the entry's time to live, so that it still covers the whole
+ * horizon when it expires. Entries expire {@code scheduler.upcoming-cache.ttl-ms} after loading, at most
+ * {@code scheduler.upcoming-cache.max-size} patients are cached, and the entries of patients named by a
+ * {@link TasksChangedEvent} are dropped as soon as their tasks are committed. Cache gets, hit ratio and size are
+ * exposed as {@code cache.*} meters tagged {@code cache=upcoming_tasks}.
+ */
+@Service
+public class UpcomingTaskService {
+
+    static final int MAX_CACHED_TASKS = 1_000;
+    static final String CACHE_NAME = "upcoming_tasks";
+
+    private final TreatmentTaskRepository treatmentTaskRepository;
+    private final Cache<String, List<TaskView>> cache;
+    private final int horizonHours;
+    private final Duration timeToLive;
+
+    public UpcomingTaskService(TreatmentTaskRepository treatmentTaskRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${scheduler.upcoming-cache.max-size:10000}") long maximumSize,
+                               @Value("${scheduler.upcoming-cache.ttl-ms:60000}") long timeToLiveMs,
+                               @Value("${scheduler.upcoming-cache.horizon-hours:24}") int horizonHours) {
+        this.treatmentTaskRepository = treatmentTaskRepository;
+        this.horizonHours = horizonHours;
+        this.timeToLive = Duration.ofMillis(timeToLiveMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of cache lookups answered from the cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the active tasks of {@code subjectPatient} starting in the next {@code hours}, ordered by start time;
+     * {@code hours} is capped at {@code scheduler.upcoming-cache.horizon-hours}.
+     *
+     * @throws IllegalArgumentException if {@code subjectPatient} is blank
+     */
+    public List<TaskView> findUpcomingTasks(String subjectPatient, int hours) {
+        if (subjectPatient == null || subjectPatient.isBlank()) {
+            throw new IllegalArgumentException("A patient is required");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusHours(Math.clamp(hours, 1, horizonHours));
+        return cache.get(subjectPatient, this::loadUpcomingTasks).stream()
+                .filter(task -> !task.startTime().isBefore(now) && task.startTime().isBefore(until))
+                .toList();
+    }
+
+    @EventListener
+    public void onTasksChanged(TasksChangedEvent event) {
+        cache.invalidateAll(event.subjectPatients());
+    }
+
+    private List<TaskView> loadUpcomingTasks(String subjectPatient) {
+        LocalDateTime now = LocalDateTime.now();
+        TaskFilter filter = new TaskFilter(
+                subjectPatient, TaskStatus.ACTIVE, null, now, now.plusHours(horizonHours).plus(timeToLive));
+        return List.copyOf(treatmentTaskRepository.findTasks(filter, null, MAX_CACHED_TASKS));
+    }
+}
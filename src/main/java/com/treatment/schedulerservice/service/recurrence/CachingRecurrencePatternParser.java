@@ -0,0 +1,44 @@
+package com.treatment.schedulerservice.service.recurrence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.treatment.schedulerservice.helper.RecurrencePattern;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded cache in front of {@link DefaultRecurrencePatternParser}. Many plans share the same handful of
+ * pattern strings, so each distinct string is parsed once. Invalid patterns are not cached. Hits, misses and size
+ * are published as the {@value #CACHE_NAME} cache metrics.
+ */
+@Component
+@Primary
+public class CachingRecurrencePatternParser implements RecurrencePatternParser {
+
+    static final String CACHE_NAME = "recurrence_patterns";
+
+    private final RecurrencePatternParser delegate;
+    private final Cache<String, RecurrencePattern> cache;
+
+    public CachingRecurrencePatternParser(DefaultRecurrencePatternParser delegate,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${scheduler.pattern-cache.max-size:10000}") long maximumSize) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public RecurrencePattern parse(String patternString) {
+        if (patternString == null) {
+            return delegate.parse(null);
+        }
+        return cache.get(patternString, delegate::parse);
+    }
+}
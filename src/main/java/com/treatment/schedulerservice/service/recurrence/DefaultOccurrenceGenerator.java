@@ -1,18 +1,30 @@
 package com.treatment.schedulerservice.service.recurrence;
 
 import com.treatment.schedulerservice.domain.RecurrenceType;
+import com.treatment.schedulerservice.helper.CompiledRecurrencePattern;
+import com.treatment.schedulerservice.helper.EpochMinutes;
 import com.treatment.schedulerservice.helper.RecurrencePattern;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
-
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Computes occurrences arithmetically on the pattern's {@link CompiledRecurrencePattern compiled form}: every
+ * occurrence is found directly from the previous one as an epoch-minute, so the cost is proportional to the
+ * number of occurrences in the window and no intermediate objects are created while searching.
+ */
 @Component
 public class DefaultOccurrenceGenerator implements OccurrenceGenerator {
 
+    private static final int BUFFER_SIZE = 64;
+
     @Override
     public List<LocalDateTime> generate(RecurrencePattern pattern,
                                         LocalDateTime fromTime,
@@ -20,85 +32,104 @@ public class DefaultOccurrenceGenerator implements OccurrenceGenerator {
                                         LocalDateTime planStartTime,
                                         LocalDateTime planEndTime) {
         List<LocalDateTime> occurrences = new ArrayList<>();
-
-        if (pattern.getType() == RecurrenceType.ONCE) {
-            LocalDateTime onceDateTime = planStartTime.toLocalDate().atTime(pattern.getTimes().getFirst());
-            if (isWithinWindow(onceDateTime, fromTime, toTime, planEndTime)) {
-                occurrences.add(onceDateTime);
+        long[] buffer = new long[BUFFER_SIZE];
+        long fromMinute = EpochMinutes.ceil(fromTime);
+        int count;
+        do {
+            count = generateEpochMinutes(pattern, fromMinute, toTime, planStartTime, planEndTime, buffer);
+            for (int i = 0; i < count; i++) {
+                occurrences.add(EpochMinutes.toLocalDateTime(buffer[i]));
             }
-            return occurrences;
-        }
-
-        LocalDateTime current = fromTime;
-        if (pattern.getType() == RecurrenceType.MONTHLY) {
-            current = adjustToValidMonthlyDate(current, pattern.getDayOfMonth());
-        }
-
-        int maxIterations = 1000;
-        int iterations = 0;
-
-        while (current.isBefore(toTime) && iterations < maxIterations) {
-            iterations++;
-
-            List<LocalDateTime> dailyOccurrences = calculateOccurrencesForDate(pattern, current);
-            for (LocalDateTime occurrence : dailyOccurrences) {
-                if (isWithinWindow(occurrence, fromTime, toTime, planEndTime)) {
-                    occurrences.add(occurrence);
-                }
+            if (count > 0) {
+                fromMinute = buffer[count - 1] + 1;
             }
-
-            current = getNextCalculationDate(pattern, current);
-        }
-
+        } while (count == buffer.length);
         return occurrences;
     }
 
-    private List<LocalDateTime> calculateOccurrencesForDate(RecurrencePattern pattern, LocalDateTime date) {
-        List<LocalDateTime> occurrences = new ArrayList<>();
+    @Override
+    public int generateEpochMinutes(RecurrencePattern pattern,
+                                    long fromMinute,
+                                    LocalDateTime toTime,
+                                    LocalDateTime planStartTime,
+                                    LocalDateTime planEndTime,
+                                    long[] buffer) {
+        CompiledRecurrencePattern compiled = pattern.getCompiled();
+        return compiled.fill(fromMinute, upperBound(toTime, planEndTime), onceEpochDay(pattern, planStartTime), buffer, 0);
+    }
 
-        boolean shouldGenerate = switch (pattern.getType()) {
-            case DAILY -> true;
-            case WEEKLY -> date.getDayOfWeek() == pattern.getDayOfWeek();
-            case MONTHLY -> {
-                int desired = pattern.getDayOfMonth();
-                int lastDay = date.toLocalDate().lengthOfMonth();
-                int effectiveDay = Math.min(Math.max(desired, 1), lastDay);
-                yield date.getDayOfMonth() == effectiveDay;
-            }
-            case ONCE -> false;
-        };
+    @Override
+    public Stream<LocalDateTime> stream(RecurrencePattern pattern,
+                                        LocalDateTime fromTime,
+                                        LocalDateTime planStartTime,
+                                        LocalDateTime planEndTime) {
+        return StreamSupport.stream(new OccurrenceSpliterator(
+                pattern.getCompiled(),
+                EpochMinutes.ceil(fromTime),
+                upperBound(null, planEndTime),
+                onceEpochDay(pattern, planStartTime)), false);
+    }
 
-        if (shouldGenerate) {
-            occurrences = pattern.getTimes().stream()
-                    .map(time -> date.toLocalDate().atTime(time))
-                    .collect(Collectors.toList());
+    /**
+     * Exclusive epoch-minute bound: occurrences are before {@code toTime} and not after {@code planEndTime}.
+     */
+    private long upperBound(LocalDateTime toTime, LocalDateTime planEndTime) {
+        long bound = toTime == null ? CompiledRecurrencePattern.NO_OCCURRENCE : EpochMinutes.ceil(toTime);
+        if (planEndTime != null) {
+            bound = Math.min(bound, EpochMinutes.floor(planEndTime) + 1);
         }
-
-        return occurrences;
+        return bound;
     }
 
-    private LocalDateTime getNextCalculationDate(RecurrencePattern pattern, LocalDateTime current) {
-        return switch (pattern.getType()) {
-            case DAILY -> current.plusDays(1);
-            case WEEKLY -> current.with(TemporalAdjusters.next(pattern.getDayOfWeek()));
-            case MONTHLY -> adjustToValidMonthlyDate(current.plusMonths(1), pattern.getDayOfMonth());
-            case ONCE -> current.plusYears(1);
-        };
+    private long onceEpochDay(RecurrencePattern pattern, LocalDateTime planStartTime) {
+        if (pattern.getType() != RecurrenceType.ONCE) {
+            return 0L;
+        }
+        if (planStartTime == null) {
+            throw new IllegalArgumentException("ONCE pattern requires the plan start time");
+        }
+        return planStartTime.toLocalDate().toEpochDay();
     }
 
-    private LocalDateTime adjustToValidMonthlyDate(LocalDateTime base, int desiredDayOfMonth) {
-        int lastDay = base.toLocalDate().lengthOfMonth();
-        int day = Math.min(Math.max(desiredDayOfMonth, 1), lastDay);
-        return base.withDayOfMonth(day);
-    }
+    /**
+     * Pulls occurrences one at a time from the compiled pattern, so consumers only pay for the occurrences they use.
+     */
+    private static final class OccurrenceSpliterator extends Spliterators.AbstractSpliterator<LocalDateTime> {
+
+        private final CompiledRecurrencePattern compiled;
+        private final long upperBound;
+        private final long onceEpochDay;
+        private long cursor;
+
+        private OccurrenceSpliterator(CompiledRecurrencePattern compiled,
+                                      long fromMinute,
+                                      long upperBound,
+                                      long onceEpochDay) {
+            super(Long.MAX_VALUE, ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE);
+            this.compiled = compiled;
+            this.cursor = fromMinute;
+            this.upperBound = upperBound;
+            this.onceEpochDay = onceEpochDay;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super LocalDateTime> action) {
+            if (cursor >= upperBound) {
+                return false;
+            }
+            long occurrence = compiled.nextAtOrAfter(cursor, onceEpochDay);
+            if (occurrence >= upperBound) {
+                cursor = upperBound;
+                return false;
+            }
+            cursor = occurrence + 1;
+            action.accept(EpochMinutes.toLocalDateTime(occurrence));
+            return true;
+        }
 
-    private boolean isWithinWindow(LocalDateTime occurrence,
-                                   LocalDateTime fromTime,
-                                   LocalDateTime toTime,
-                                   LocalDateTime planEndTime) {
-        if (occurrence.isBefore(fromTime) || occurrence.isAfter(toTime) || occurrence.isEqual(toTime)) {
-            return false;
+        @Override
+        public Comparator<? super LocalDateTime> getComparator() {
+            return null;
         }
-        return planEndTime == null || !occurrence.isAfter(planEndTime);
     }
 }
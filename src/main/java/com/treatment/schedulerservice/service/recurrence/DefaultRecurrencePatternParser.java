@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -84,7 +85,8 @@ public class DefaultRecurrencePatternParser implements RecurrencePatternParser {
             String timesPart = String.join(":", Arrays.copyOfRange(parts, startIndex, parts.length));
             String[] timeStrings = timesPart.split(",");
             for (String timeString : timeStrings) {
-                times.add(LocalTime.parse(timeString.trim()));
+                // occurrences are generated at minute resolution; stored patterns may still carry HH:mm:ss times
+                times.add(LocalTime.parse(timeString.trim()).truncatedTo(ChronoUnit.MINUTES));
             }
         }
         if (times.isEmpty()) {
@@ -4,6 +4,8 @@ import com.treatment.schedulerservice.helper.RecurrencePattern;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OccurrenceGenerator {
     List<LocalDateTime> generate(
@@ -13,4 +15,50 @@ public interface OccurrenceGenerator {
             LocalDateTime planStartTime,
             LocalDateTime planEndTime
     );
+
+    /**
+     * Allocation-free variant of {@link #generate}: writes the occurrences at or after {@code fromMinute} and before
+     * {@code toTime} (and not after {@code planEndTime}) as epoch-minutes into {@code buffer}. When the buffer is
+     * filled completely, call again with the last value plus one to continue.
+     *
+     * @return number of occurrences written
+     */
+    int generateEpochMinutes(
+            RecurrencePattern pattern,
+            long fromMinute,
+            LocalDateTime toTime,
+            LocalDateTime planStartTime,
+            LocalDateTime planEndTime,
+            long[] buffer
+    );
+
+    /**
+     * Lazily enumerates occurrences at or after {@code fromTime} in chronological order. The stream ends at
+     * {@code planEndTime} (inclusive) and is infinite for open-ended plans, so callers must bound it.
+     */
+    Stream<LocalDateTime> stream(
+            RecurrencePattern pattern,
+            LocalDateTime fromTime,
+            LocalDateTime planStartTime,
+            LocalDateTime planEndTime
+    );
+
+    default Optional<LocalDateTime> nextAfter(RecurrencePattern pattern,
+                                              LocalDateTime time,
+                                              LocalDateTime planStartTime,
+                                              LocalDateTime planEndTime) {
+        return stream(pattern, time, planStartTime, planEndTime)
+                .filter(occurrence -> occurrence.isAfter(time))
+                .findFirst();
+    }
+
+    default List<LocalDateTime> limit(RecurrencePattern pattern,
+                                      LocalDateTime fromTime,
+                                      int maxOccurrences,
+                                      LocalDateTime planStartTime,
+                                      LocalDateTime planEndTime) {
+        return stream(pattern, fromTime, planStartTime, planEndTime)
+                .limit(maxOccurrences)
+                .toList();
+    }
 }
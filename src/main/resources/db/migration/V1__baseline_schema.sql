@@ -0,0 +1,71 @@
+-- Schema as previously generated by Hibernate (ddl-auto=create-drop)
+
+CREATE SEQUENCE treatment_tasks_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE treatment_plans (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    treatment_action   VARCHAR(255) NOT NULL,
+    subject_patient    VARCHAR(255) NOT NULL,
+    start_time         TIMESTAMP(6) NOT NULL,
+    end_time           TIMESTAMP(6),
+    recurrence_pattern VARCHAR(255) NOT NULL,
+    active             BOOLEAN      NOT NULL,
+    generated_until    TIMESTAMP(6),
+    next_fire_at       TIMESTAMP(6),
+    created_at         TIMESTAMP(6) NOT NULL,
+    updated_at         TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- findDuePlansAfter pages due plans in (next_fire_at, id) order, so a page is one range scan over the due plans;
+-- findNextFireTimes uses the leading next_fire_at column
+CREATE INDEX idx_treatment_plans_next_fire_at_id ON treatment_plans (next_fire_at, id);
+
+CREATE TABLE treatment_tasks (
+    id                BIGINT       NOT NULL,
+    treatment_action  VARCHAR(255) NOT NULL,
+    subject_patient   VARCHAR(255) NOT NULL,
+    start_time        TIMESTAMP(6) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    treatment_plan_id BIGINT       NOT NULL,
+    created_at        TIMESTAMP(6) NOT NULL,
+    completed_at      TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_plan_start_time UNIQUE (treatment_plan_id, start_time)
+);
+
+CREATE TABLE scheduler_runs (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    started_at            TIMESTAMP(6) NOT NULL,
+    finished_at           TIMESTAMP(6) NOT NULL,
+    duration_ms           BIGINT       NOT NULL,
+    plans_processed       INTEGER      NOT NULL,
+    tasks_created         INTEGER      NOT NULL,
+    chunks                INTEGER      NOT NULL,
+    failed_chunks         INTEGER      NOT NULL,
+    late_tasks            BIGINT       NOT NULL,
+    fetch_ms              BIGINT       NOT NULL,
+    parse_ms              BIGINT       NOT NULL,
+    generate_ms           BIGINT       NOT NULL,
+    dedup_ms              BIGINT       NOT NULL,
+    insert_ms             BIGINT       NOT NULL,
+    lead_time_p50_seconds BIGINT,
+    lead_time_p99_seconds BIGINT,
+    lead_time_histogram   BYTEA,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_scheduler_runs_started_at ON scheduler_runs (started_at);
+
+CREATE TABLE scheduler_partition_leases (
+    partition_id INTEGER NOT NULL,
+    owner        VARCHAR(255),
+    lease_until  TIMESTAMP(6),
+    PRIMARY KEY (partition_id)
+);
+
+CREATE TABLE scheduler_nodes (
+    node_id   VARCHAR(255) NOT NULL,
+    last_seen TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (node_id)
+);
@@ -0,0 +1,9 @@
+-- Plan activation count (countActiveValidPlans): every column of the query is in the index, so the count reads
+-- the started plans from the index alone. It does not cover the ActivePlan projection: the keyset pages of
+-- findActiveValidPlansAfter need plans in id order and seek on the primary key. start_time leads instead of
+-- active, which matches nearly every plan, so H2 keeps that seek instead of a range of this index.
+CREATE INDEX idx_treatment_plans_activation ON treatment_plans (start_time, end_time, active, id);
+
+-- Task lookups by patient and by status, both bounded and ordered by start time
+CREATE INDEX idx_treatment_tasks_patient_start ON treatment_tasks (subject_patient, start_time);
+CREATE INDEX idx_treatment_tasks_status_start ON treatment_tasks (status, start_time);
@@ -0,0 +1,2 @@
+-- Keyset pagination of unfiltered task queries in (start_time, id) order
+CREATE INDEX idx_treatment_tasks_start_time ON treatment_tasks (start_time, id);
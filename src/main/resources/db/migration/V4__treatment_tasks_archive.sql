@@ -0,0 +1,15 @@
+-- Completed tasks moved out of treatment_tasks by the retention job
+CREATE TABLE treatment_tasks_archive (
+    id                BIGINT       NOT NULL,
+    treatment_action  VARCHAR(255) NOT NULL,
+    subject_patient   VARCHAR(255) NOT NULL,
+    start_time        TIMESTAMP(6) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    treatment_plan_id BIGINT       NOT NULL,
+    created_at        TIMESTAMP(6) NOT NULL,
+    completed_at      TIMESTAMP(6),
+    archived_at       TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_treatment_tasks_archive_archived_at ON treatment_tasks_archive (archived_at);
@@ -0,0 +1,178 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.SchedulerServiceApplication;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.service.PartitionLeaseService;
+import com.treatment.schedulerservice.service.TaskArchiveService;
+import com.treatment.schedulerservice.service.TreatmentSchedulerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two scheduler nodes sharing a file-based H2 database.
+ */
+class ClusteredSchedulerTest {
+
+    private static final int PARTITIONS = 4;
+
+    private final String databaseName = "./target/cluster-test/" + UUID.randomUUID();
+    private final String databaseUrl = "jdbc:h2:file:" + databaseName + ";MODE=PostgreSQL";
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void nodesSplitPartitionsAndGenerateEachTaskOnce() {
+        List<TreatmentPlan> plans = createPlans(40);
+
+        tickBothNodes();
+        tickBothNodes();
+
+        List<Integer> ownedByA = leaseService(nodeA).acquirePartitions(PARTITIONS);
+        List<Integer> ownedByB = leaseService(nodeB).acquirePartitions(PARTITIONS);
+        assertEquals(PARTITIONS / 2, ownedByA.size(), "node-a owns " + ownedByA);
+        assertEquals(PARTITIONS / 2, ownedByB.size(), "node-b owns " + ownedByB);
+        Set<Integer> all = new HashSet<>(ownedByA);
+        all.addAll(ownedByB);
+        assertEquals(PARTITIONS, all.size(), "Partitions must not be shared");
+
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        for (TreatmentPlan plan : plans) {
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM treatment_tasks WHERE treatment_plan_id = ?", Integer.class, plan.getId()),
+                    "Expected exactly one task for plan " + plan.getId());
+        }
+    }
+
+    @Test
+    void expiredLeasesAreTakenOverOnNextTick() {
+        tickBothNodes();
+        tickBothNodes();
+        List<Integer> ownedByA = leaseService(nodeA).acquirePartitions(PARTITIONS);
+        assertFalse(ownedByA.isEmpty());
+
+        // node-a stops ticking without releasing its leases
+        JdbcTemplate jdbcTemplate = nodeB.getBean(JdbcTemplate.class);
+        LocalDateTime past = LocalDateTime.now().minusHours(1);
+        jdbcTemplate.update("UPDATE scheduler_partition_leases SET lease_until = ? WHERE owner = 'node-a'", past);
+        jdbcTemplate.update("UPDATE scheduler_nodes SET last_seen = ? WHERE node_id = 'node-a'", past);
+
+        List<Integer> ownedByB = leaseService(nodeB).acquirePartitions(PARTITIONS);
+
+        assertEquals(List.of(0, 1, 2, 3), ownedByB);
+    }
+
+    @Test
+    void onlyTheHolderOfPartitionZeroExportsTheArchive() {
+        tickBothNodes();
+        tickBothNodes();
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        LocalDateTime old = LocalDateTime.now().minusDays(60);
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO treatment_tasks_archive (id, treatment_action, subject_patient, start_time, " +
+                    "status, treatment_plan_id, created_at, completed_at, archived_at) VALUES (?, 'ACTION_A', " +
+                    "'CLUSTER_ARCHIVE_PATIENT', ?, 'COMPLETED', 1, ?, ?, ?)", id, old, old, old, old);
+        }
+        boolean aHoldsZero = leaseService(nodeA).acquirePartitions(PARTITIONS).contains(0);
+        ConfigurableApplicationContext holder = aHoldsZero ? nodeA : nodeB;
+        ConfigurableApplicationContext other = aHoldsZero ? nodeB : nodeA;
+
+        assertEquals(0, other.getBean(TaskArchiveService.class).exportArchivedTasks());
+        assertEquals(3, holder.getBean(TaskArchiveService.class).exportArchivedTasks());
+        assertEquals(3, other.getBean(TaskArchiveService.class)
+                .findTasks("CLUSTER_ARCHIVE_PATIENT", null, null, 10).size());
+    }
+
+    @Test
+    void refusesToStartWithANodeLocalArchiveDirectory() {
+        Exception e = assertThrows(Exception.class, () -> startNode("node-c", false));
+
+        Throwable cause = rootCause(e);
+        assertInstanceOf(IllegalStateException.class, cause, e.toString());
+        assertTrue(cause.getMessage().contains("scheduler.archive.shared-dir=true"), cause.getMessage());
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private void tickBothNodes() {
+        nodeA.getBean(TreatmentSchedulerService.class).generateTasks();
+        nodeB.getBean(TreatmentSchedulerService.class).generateTasks();
+    }
+
+    private PartitionLeaseService leaseService(ConfigurableApplicationContext node) {
+        return node.getBean(PartitionLeaseService.class);
+    }
+
+    private List<TreatmentPlan> createPlans(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalTime occurrenceTime = now.plusMinutes(2).withSecond(0).withNano(0).toLocalTime();
+        String pattern = "ONCE:" + DateTimeFormatter.ofPattern("HH:mm").format(occurrenceTime);
+        List<TreatmentPlan> plans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            plans.add(TreatmentPlan.builder()
+                    .treatmentAction(TreatmentAction.ACTION_A)
+                    .subjectPatient("CLUSTER_PATIENT_" + i)
+                    .startTime(now.minusMinutes(5))
+                    .recurrencePattern(pattern)
+                    .active(true)
+                    .build());
+        }
+        return nodeA.getBean(TreatmentPlanRepository.class).saveAll(plans);
+    }
+
+    private ConfigurableApplicationContext startNode(String nodeId) {
+        return startNode(nodeId, true);
+    }
+
+    private ConfigurableApplicationContext startNode(String nodeId, boolean sharedArchiveDir) {
+        return new SpringApplicationBuilder(SchedulerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + databaseUrl,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=INFO",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+                        "--scheduler.execution-interval-ms=3600000",
+                        "--scheduler.partitions=" + PARTITIONS,
+                        "--scheduler.parallelism=2",
+                        "--scheduler.cluster.enabled=true",
+                        "--scheduler.cluster.node-id=" + nodeId,
+                        "--scheduler.archive.dir=" + databaseName + "-archive",
+                        "--scheduler.archive.shared-dir=" + sharedArchiveDir,
+                        "--scheduler.archive.min-segment-size=1");
+    }
+}
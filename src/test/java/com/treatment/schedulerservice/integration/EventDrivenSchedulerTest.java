@@ -0,0 +1,140 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import com.treatment.schedulerservice.scheduling.EventDrivenScheduler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "scheduler.mode=event-driven",
+        "scheduler.event.min-wake-interval-ms=100",
+        "scheduler.event.max-wake-interval-ms=600000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EventDrivenSchedulerTest {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Autowired
+    private TreatmentPlanRepository treatmentPlanRepository;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Autowired
+    private EventDrivenScheduler eventDrivenScheduler;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Test
+    void savingAPlanWakesTheSchedulerForDuePlansOnly() {
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(2).withSecond(0).withNano(0);
+        String pattern = "DAILY:" + TIME_FORMAT.format(occurrence);
+        TreatmentPlan notDue = treatmentPlanRepository.save(plan("NOT_DUE_PATIENT", pattern, LocalDateTime.now().plusHours(2)));
+        TreatmentPlan due = treatmentPlanRepository.save(plan("DUE_PATIENT", pattern, null));
+
+        awaitTask(due, occurrence);
+
+        assertTrue(treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(notDue.getId(), occurrence).isEmpty());
+        TreatmentPlan reloaded = treatmentPlanRepository.findById(due.getId()).orElseThrow();
+        assertEquals(occurrence.plusDays(1).minusHours(1), reloaded.getNextFireAt());
+        LocalDateTime nextWakeUp = eventDrivenScheduler.getNextWakeUpAt();
+        assertTrue(nextWakeUp.isAfter(LocalDateTime.now().minusSeconds(1)), "Next wake-up " + nextWakeUp);
+    }
+
+    @Test
+    void oncePlanHasNoFireTimeAfterItsOccurrence() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalTime occurrenceTime = now.plusMinutes(2).withSecond(0).withNano(0).toLocalTime();
+        TreatmentPlan plan = treatmentPlanRepository.save(plan("ONCE_PATIENT", "ONCE:" + TIME_FORMAT.format(occurrenceTime), null));
+
+        awaitTask(plan, plan.getStartTime().toLocalDate().atTime(occurrenceTime));
+
+        assertNull(treatmentPlanRepository.findById(plan.getId()).orElseThrow().getNextFireAt());
+    }
+
+    @Test
+    void updatingAPlanRegeneratesItsWindow() {
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(2).withSecond(0).withNano(0);
+        TreatmentPlan plan = treatmentPlanRepository.save(plan("UPDATED_PATIENT", "DAILY:" + TIME_FORMAT.format(occurrence), null));
+        awaitTask(plan, occurrence);
+
+        LocalDateTime movedOccurrence = occurrence.plusMinutes(10);
+        TreatmentPlan reloaded = treatmentPlanRepository.findById(plan.getId()).orElseThrow();
+        reloaded.setRecurrencePattern("DAILY:" + TIME_FORMAT.format(movedOccurrence));
+        treatmentPlanRepository.save(reloaded);
+
+        awaitTask(plan, movedOccurrence);
+    }
+
+    @Test
+    void wakesUpWhileTheSharedTaskSchedulerIsBusy() throws InterruptedException {
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        taskScheduler.schedule(() -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, Instant.now());
+        try {
+            assertTrue(busy.await(10, TimeUnit.SECONDS));
+            LocalDateTime occurrence = LocalDateTime.now().plusMinutes(2).withSecond(0).withNano(0);
+            TreatmentPlan plan = treatmentPlanRepository.save(plan("BUSY_SCHEDULER_PATIENT", "DAILY:" + TIME_FORMAT.format(occurrence), null));
+
+            awaitTask(plan, occurrence);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void awaitTask(TreatmentPlan plan, LocalDateTime startTime) {
+        await(() -> treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(plan.getId(), startTime).isPresent(),
+                "Expected a task for plan " + plan.getId() + " at " + startTime);
+    }
+
+    private void await(BooleanSupplier condition, String message) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(message);
+            }
+        }
+    }
+
+    private TreatmentPlan plan(String patient, String pattern, LocalDateTime nextFireAt) {
+        return TreatmentPlan.builder()
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient(patient)
+                .startTime(LocalDateTime.now().minusMinutes(5))
+                .recurrencePattern(pattern)
+                .active(true)
+                .nextFireAt(nextFireAt)
+                .build();
+    }
+}
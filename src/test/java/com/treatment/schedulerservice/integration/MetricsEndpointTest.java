@@ -0,0 +1,113 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.repository.SchedulerRunRepository;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.service.SchedulerRunService;
+import com.treatment.schedulerservice.service.TreatmentSchedulerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TreatmentSchedulerService schedulerService;
+
+    @Autowired
+    private SchedulerRunService schedulerRunService;
+
+    @Autowired
+    private SchedulerRunRepository schedulerRunRepository;
+
+    @Autowired
+    private TreatmentPlanRepository treatmentPlanRepository;
+
+    @Test
+    void exposesSchedulerMetricsForPrometheus() throws Exception {
+        schedulerService.generateTasksNow();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("scheduler_run_duration_seconds_count")))
+                .andExpect(content().string(containsString("scheduler_run_phase_seconds_count{application=\"scheduler-service\",phase=\"insert\"}")))
+                .andExpect(content().string(containsString("scheduler_plans_active")))
+                .andExpect(content().string(containsString("scheduler_execution_interval_seconds")))
+                .andExpect(content().string(containsString("scheduler_task_lead_time_seconds_bucket")))
+                .andExpect(content().string(containsString("scheduler_tasks_late_total")))
+                .andExpect(content().string(containsString("cache_gets_total{application=\"scheduler-service\",cache=\"recurrence_patterns\",result=\"miss\"}")));
+    }
+
+    @Test
+    void reportsRecentRuns() throws Exception {
+        schedulerService.generateTasksNow();
+        schedulerService.generateTasksNow();
+
+        mockMvc.perform(get("/api/scheduler/history").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].plansProcessed").isNumber())
+                .andExpect(jsonPath("$[0].durationMs").isNumber())
+                .andExpect(jsonPath("$[0].insertMs").isNumber())
+                .andExpect(jsonPath("$[0].leadTimeHistogram").doesNotExist());
+    }
+
+    @Test
+    void summarizesRecentRuns() throws Exception {
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(30);
+        treatmentPlanRepository.save(TreatmentPlan.builder()
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient("RUN_SUMMARY_PATIENT")
+                .startTime(LocalDateTime.now().minusMinutes(5))
+                .recurrencePattern("DAILY:" + DateTimeFormatter.ofPattern("HH:mm").format(occurrence))
+                .active(true)
+                .build());
+        schedulerService.generateTasksNow();
+        schedulerService.generateTasksNow();
+
+        mockMvc.perform(get("/api/scheduler/history/summary").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runs").value(2))
+                .andExpect(jsonPath("$.plansProcessed").isNumber())
+                .andExpect(jsonPath("$.durationP99Ms").isNumber())
+                .andExpect(jsonPath("$.leadTimeP50Seconds").isNumber())
+                .andExpect(jsonPath("$.leadTimeP99Seconds").isNumber())
+                .andExpect(jsonPath("$.plansPerSecond").isNumber());
+    }
+
+    @Test
+    void keepsOnlyTheNewestRuns() {
+        ReflectionTestUtils.setField(schedulerRunService, "maxHistory", 2);
+        ReflectionTestUtils.setField(schedulerRunService, "nextPruneId", 0L);
+        schedulerService.generateTasksNow();
+        schedulerService.generateTasksNow();
+        schedulerService.generateTasksNow();
+        Long newest = schedulerRunService.findRecentRuns(1).getFirst().id();
+
+        assertEquals(2, schedulerRunRepository.count());
+        assertEquals(newest, schedulerRunService.findRecentRuns(1).getFirst().id());
+    }
+}
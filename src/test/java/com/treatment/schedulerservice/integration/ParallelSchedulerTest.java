@@ -0,0 +1,65 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import com.treatment.schedulerservice.service.TreatmentSchedulerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "scheduler.partitions=8",
+        "scheduler.parallelism=4",
+        "scheduler.chunk-size=3"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ParallelSchedulerTest {
+
+    @Autowired
+    private TreatmentPlanRepository treatmentPlanRepository;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Autowired
+    private TreatmentSchedulerService schedulerService;
+
+    @Test
+    void partitionedRunGeneratesOneTaskPerPlan() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalTime occurrenceTime = now.plusMinutes(2).withSecond(0).withNano(0).toLocalTime();
+        String pattern = "ONCE:" + DateTimeFormatter.ofPattern("HH:mm").format(occurrenceTime);
+
+        List<TreatmentPlan> plans = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            plans.add(TreatmentPlan.builder()
+                    .treatmentAction(TreatmentAction.ACTION_A)
+                    .subjectPatient("PARALLEL_PATIENT_" + i)
+                    .startTime(now.minusMinutes(5))
+                    .recurrencePattern(pattern)
+                    .active(true)
+                    .build());
+        }
+        plans = treatmentPlanRepository.saveAll(plans);
+
+        schedulerService.generateTasksNow();
+
+        LocalDateTime expectedTaskTime = plans.getFirst().getStartTime().toLocalDate().atTime(occurrenceTime);
+        for (TreatmentPlan plan : plans) {
+            assertTrue(treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(plan.getId(), expectedTaskTime).isPresent(),
+                    "Expected a task for plan " + plan.getId());
+        }
+        assertEquals(0, schedulerService.generateTasksNow(), "A second run must not create duplicates");
+    }
+}
@@ -0,0 +1,175 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.dto.PlanImportResult;
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.service.PlanImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "scheduler.mode=full-scan",
+        "scheduler.import.batch-size=2",
+        "scheduler.import.max-reported-errors=3"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PlanImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TreatmentPlanRepository treatmentPlanRepository;
+
+    @Autowired
+    private PlanImportService planImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsValidLinesAndReportsRejectedOnes() throws Exception {
+        String ndjson = String.join("\n",
+                line("IMPORT_PATIENT_1", "DAILY:08:00,20:00"),
+                line("IMPORT_PATIENT_2", "WEEKLY:MONDAY:10:00"),
+                line("IMPORT_PATIENT_3", "HOURLY:10"),
+                "",
+                "{not json",
+                line("IMPORT_PATIENT_4", "ONCE:09:30"),
+                "{\"treatmentAction\":\"ACTION_A\",\"recurrencePattern\":\"ONCE:09:30\",\"startTime\":\"2030-01-01T00:00:00\"}");
+
+        mockMvc.perform(post("/api/plans/bulk").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesRead").value(7))
+                .andExpect(jsonPath("$.plansImported").value(3))
+                .andExpect(jsonPath("$.failedLines").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Invalid recurrence pattern: HOURLY:10"))
+                .andExpect(jsonPath("$.errors[1].line").value(5))
+                .andExpect(jsonPath("$.errors[2].line").value(7))
+                .andExpect(jsonPath("$.errors[2].message").value("subjectPatient is required"));
+
+        List<TreatmentPlan> imported = treatmentPlanRepository.findAll().stream()
+                .filter(plan -> plan.getSubjectPatient().startsWith("IMPORT_PATIENT_"))
+                .toList();
+        assertEquals(3, imported.size());
+        TreatmentPlan plan = imported.getFirst();
+        assertTrue(plan.getActive());
+        assertEquals(plan.getStartTime(), plan.getNextFireAt());
+        assertNotNull(plan.getCreatedAt());
+    }
+
+    @Test
+    void capsTheListedErrors() throws Exception {
+        String ndjson = "x\n".repeat(5) + line("IMPORT_PATIENT_5", "DAILY:08:00");
+
+        mockMvc.perform(post("/api/plans/bulk").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plansImported").value(1))
+                .andExpect(jsonPath("$.failedLines").value(5))
+                .andExpect(jsonPath("$.errors.length()").value(3));
+    }
+
+    @Test
+    void rejectsValuesTooLongForTheirColumn() throws Exception {
+        String ndjson = String.join("\n",
+                line("IMPORT_PATIENT_6", "DAILY:08:00"),
+                line("IMPORT_PATIENT_" + "X".repeat(250), "DAILY:08:00"),
+                line("IMPORT_PATIENT_7", "DAILY:" + "08:00,".repeat(50) + "09:00"));
+
+        mockMvc.perform(post("/api/plans/bulk").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plansImported").value(1))
+                .andExpect(jsonPath("$.failedLines").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("subjectPatient exceeds 255 characters"))
+                .andExpect(jsonPath("$.errors[1].line").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("recurrencePattern exceeds 255 characters"));
+    }
+
+    @Test
+    void retriesARejectedBatchPlanByPlan() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE treatment_plans ADD CONSTRAINT import_test_rejected " +
+                "CHECK (subject_patient <> 'IMPORT_REJECTED')");
+        try {
+            String ndjson = String.join("\n",
+                    line("IMPORT_PATIENT_8", "DAILY:08:00"),
+                    line("IMPORT_REJECTED", "DAILY:08:00"),
+                    line("IMPORT_PATIENT_9", "DAILY:08:00"));
+
+            mockMvc.perform(post("/api/plans/bulk").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.plansImported").value(2))
+                    .andExpect(jsonPath("$.failedLines").value(1))
+                    .andExpect(jsonPath("$.errors[0].line").value(2));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE treatment_plans DROP CONSTRAINT import_test_rejected");
+        }
+        assertEquals(List.of("IMPORT_PATIENT_8", "IMPORT_PATIENT_9"), treatmentPlanRepository.findAll().stream()
+                .map(TreatmentPlan::getSubjectPatient)
+                .filter(List.of("IMPORT_PATIENT_8", "IMPORT_REJECTED", "IMPORT_PATIENT_9")::contains)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void rejectsLinesOverTheLengthLimitWithoutBufferingThem() throws Exception {
+        String ndjson = "x".repeat(100_000) + "\n" + line("IMPORT_PATIENT_10", "DAILY:08:00") + "\r\n";
+
+        mockMvc.perform(post("/api/plans/bulk").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesRead").value(2))
+                .andExpect(jsonPath("$.plansImported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("Line exceeds 4096 characters"));
+    }
+
+    @Test
+    void reportsWhatWasImportedWhenTheInputFailsMidway() {
+        byte[] lines = (line("IMPORT_PARTIAL_1", "DAILY:08:00") + "\n" + line("IMPORT_PARTIAL_2", "DAILY:08:00") + "\n" +
+                line("IMPORT_PARTIAL_3", "DAILY:08:00") + "\n").getBytes(StandardCharsets.UTF_8);
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        PlanImportResult result = planImportService.importPlans(
+                new SequenceInputStream(new ByteArrayInputStream(lines), failing));
+
+        assertEquals(3, result.linesRead());
+        assertEquals(3, result.plansImported());
+        assertEquals("Failed to read the input after line 3: connection reset", result.readError());
+        assertEquals(3, treatmentPlanRepository.findAll().stream()
+                .filter(plan -> plan.getSubjectPatient().startsWith("IMPORT_PARTIAL_"))
+                .count());
+    }
+
+    private static String line(String patient, String pattern) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        return "{\"treatmentAction\":\"ACTION_A\",\"subjectPatient\":\"" + patient + "\"," +
+                "\"startTime\":\"" + start + "\",\"endTime\":\"" + start.plusDays(30) + "\"," +
+                "\"recurrencePattern\":\"" + pattern + "\"}";
+    }
+}
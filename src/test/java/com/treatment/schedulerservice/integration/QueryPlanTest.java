@@ -0,0 +1,163 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks with H2's {@code EXPLAIN} that the hot scheduler queries are answered from the indexes created by the
+ * Flyway migrations instead of a table scan. The plan queries are explained as Hibernate generates them, captured
+ * by {@link LastStatement}, and analyzed against seeded plans to bound the rows they read.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.treatment.schedulerservice.integration.QueryPlanTest$LastStatement")
+class QueryPlanTest {
+
+    private static final int PLANS = 20_000;
+    private static final int PARTITIONS = 4;
+    private static final int PAGE_SIZE = 500;
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TreatmentPlanRepository treatmentPlanRepository;
+
+    @Test
+    void activePlanPageSeeksOnPrimaryKey() {
+        long afterId = seedPlans() + PLANS / 2;
+
+        treatmentPlanRepository.findActiveValidPlansAfter(NOW, PARTITIONS, 1, afterId, Limit.of(PAGE_SIZE));
+        String plan = explainAnalyze(LastStatement.sql(), NOW, NOW, PARTITIONS, 1, afterId, PAGE_SIZE);
+
+        assertUsesIndex(plan, "PRIMARY_KEY");
+        assertTrue(scanCount(plan) <= PARTITIONS * PAGE_SIZE + 1,
+                "Expected at most one page per partition to be read:\n" + plan);
+    }
+
+    @Test
+    void activePlanCountReadsOnlyTheActivationIndex() {
+        long firstId = seedPlans() + 1;
+        int started = PLANS / 4;
+        jdbcTemplate.update("UPDATE treatment_plans SET start_time = ? WHERE id >= ?",
+                Timestamp.valueOf(NOW.plusDays(1)), firstId + started);
+
+        long count = treatmentPlanRepository.countActiveValidPlans(NOW, PARTITIONS, List.of(0, 1));
+        String plan = explainAnalyze(LastStatement.sql(), NOW, NOW, PARTITIONS, 0, 1);
+
+        assertEquals(started / 2, count);
+        assertUsesIndex(plan, "IDX_TREATMENT_PLANS_ACTIVATION");
+        assertTrue(scanCount(plan) <= started + 1, "Expected only the started plans to be read:\n" + plan);
+    }
+
+    @Test
+    void duePlanPageOnlyReadsDuePlans() {
+        long firstId = seedPlans() + 1;
+        int due = 10;
+        jdbcTemplate.update("UPDATE treatment_plans SET next_fire_at = ? WHERE id < ?",
+                Timestamp.valueOf(NOW.minusMinutes(1)), firstId + due);
+        LocalDateTime afterFireAt = LocalDateTime.of(1, 1, 1, 0, 0);
+
+        treatmentPlanRepository.findDuePlansAfter(NOW, PARTITIONS, 1, afterFireAt, 0L, Limit.of(PAGE_SIZE));
+        String plan = explainAnalyze(LastStatement.sql(),
+                NOW, afterFireAt, afterFireAt, 0L, NOW, NOW, PARTITIONS, 1, PAGE_SIZE);
+
+        assertUsesIndex(plan, "IDX_TREATMENT_PLANS_NEXT_FIRE_AT_ID");
+        assertTrue(scanCount(plan) <= due + 1, "Expected only the due plans to be read:\n" + plan);
+    }
+
+    @Test
+    void patientTaskQueryUsesPatientIndex() {
+        String plan = explain("SELECT id, start_time, status FROM treatment_tasks WHERE subject_patient = 'PATIENT_001' " +
+                "AND start_time >= TIMESTAMP '2024-01-01 00:00:00' ORDER BY start_time");
+
+        assertUsesIndex(plan, "IDX_TREATMENT_TASKS_PATIENT_START");
+    }
+
+    @Test
+    void statusTaskQueryUsesStatusIndex() {
+        String plan = explain("SELECT id FROM treatment_tasks WHERE status = 'ACTIVE' " +
+                "AND start_time < TIMESTAMP '2024-01-01 00:00:00' ORDER BY start_time");
+
+        assertUsesIndex(plan, "IDX_TREATMENT_TASKS_STATUS_START");
+    }
+
+    @Test
+    void taskKeysetPageUsesStartTimeIndex() {
+        String plan = explain("SELECT id FROM treatment_tasks " +
+                "WHERE start_time >= TIMESTAMP '2024-01-01 00:00:00' " +
+                "AND (start_time > TIMESTAMP '2024-01-01 00:00:00' OR id > 1000) " +
+                "ORDER BY start_time, id FETCH FIRST 101 ROWS ONLY");
+
+        assertUsesIndex(plan, "IDX_TREATMENT_TASKS_START_TIME");
+    }
+
+    /**
+     * Inserts {@value #PLANS} active plans and returns the id preceding the first one.
+     */
+    private long seedPlans() {
+        LocalDateTime firstStart = NOW.minusDays(30);
+        Timestamp notDue = Timestamp.valueOf(NOW.plusDays(1));
+        List<Object[]> rows = new ArrayList<>(PLANS);
+        for (int i = 0; i < PLANS; i++) {
+            rows.add(new Object[]{"PATIENT_" + i, Timestamp.valueOf(firstStart.plusMinutes(i)), notDue,
+                    Timestamp.valueOf(firstStart)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO treatment_plans (treatment_action, subject_patient, start_time, " +
+                "recurrence_pattern, active, next_fire_at, created_at) VALUES ('ACTION_A', ?, ?, 'DAILY:08:00', TRUE, ?, ?)",
+                rows);
+        return jdbcTemplate.queryForObject("SELECT MIN(id) - 1 FROM treatment_plans", Long.class);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private String explainAnalyze(String sql, Object... parameters) {
+        return jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + sql, String.class, parameters);
+    }
+
+    private static long scanCount(String plan) {
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        long rows = 0;
+        while (matcher.find()) {
+            rows += Long.parseLong(matcher.group(1));
+        }
+        return rows;
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains("PUBLIC." + index), "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), "Unexpected table scan in plan:\n" + plan);
+    }
+
+    public static class LastStatement implements StatementInspector {
+
+        private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            LAST_SQL.set(sql);
+            return sql;
+        }
+
+        static String sql() {
+            return LAST_SQL.get();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "scheduler.mode=event-driven",
+        "scheduler.event.min-wake-interval-ms=100",
+        "scheduler.event.max-wake-interval-ms=600000",
+        "scheduler.retention.enabled=true",
+        "scheduler.retention.interval-ms=200",
+        "scheduler.retention.max-age-days=30",
+        "scheduler.retention.chunk-size=1",
+        "scheduler.retention.pause-ms=60000",
+        "scheduler.archive.enabled=false"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RetentionSchedulingTest {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final LocalDateTime OLD = LocalDateTime.now().minusDays(60);
+
+    @Autowired
+    private TreatmentPlanRepository treatmentPlanRepository;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void wakeUpFiresWhileAPurgeIsPaused() {
+        List<TreatmentTask> oldTasks = treatmentTaskRepository.saveAll(List.of(
+                completedTask(OLD), completedTask(OLD.plusHours(1))));
+        await(() -> archivedTasks() == 1, "Expected the purge to pause after its first chunk");
+
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(2).withSecond(0).withNano(0);
+        TreatmentPlan plan = treatmentPlanRepository.save(TreatmentPlan.builder()
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient("RETENTION_WAKE_UP_PATIENT")
+                .startTime(LocalDateTime.now().minusMinutes(5))
+                .recurrencePattern("DAILY:" + TIME_FORMAT.format(occurrence))
+                .active(true)
+                .build());
+
+        await(() -> treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(plan.getId(), occurrence).isPresent(),
+                "Expected a task for plan " + plan.getId() + " while the purge is paused");
+        assertEquals(1, archivedTasks());
+        assertTrue(treatmentTaskRepository.existsById(oldTasks.get(1).getId()));
+    }
+
+    private long archivedTasks() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM treatment_tasks_archive", Long.class);
+    }
+
+    private void await(BooleanSupplier condition, String message) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(message);
+            }
+        }
+    }
+
+    private TreatmentTask completedTask(LocalDateTime startTime) {
+        return TreatmentTask.builder()
+                .treatmentPlanId(1L)
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient("RETENTION_WAKE_UP_PATIENT")
+                .startTime(startTime)
+                .status(TaskStatus.COMPLETED)
+                .completedAt(startTime)
+                .build();
+    }
+}
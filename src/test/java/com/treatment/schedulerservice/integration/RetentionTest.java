@@ -0,0 +1,78 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.dto.RetentionResult;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import com.treatment.schedulerservice.service.RetentionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "scheduler.mode=full-scan",
+        "scheduler.retention.enabled=false",
+        "scheduler.retention.max-age-days=30",
+        "scheduler.retention.chunk-size=2",
+        "scheduler.retention.pause-ms=0"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RetentionTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.now().minusDays(60);
+    private static final LocalDateTime RECENT = LocalDateTime.now().minusDays(1);
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivesOldCompletedTasksInChunks() {
+        List<TreatmentTask> saved = treatmentTaskRepository.saveAll(List.of(
+                task(1L, OLD, TaskStatus.COMPLETED, OLD),
+                task(1L, OLD.plusHours(1), TaskStatus.COMPLETED, OLD),
+                task(1L, OLD.plusHours(2), TaskStatus.COMPLETED, OLD),
+                task(1L, OLD.plusHours(3), TaskStatus.COMPLETED, RECENT),
+                task(1L, OLD.plusHours(4), TaskStatus.ACTIVE, null)));
+
+        RetentionResult result = retentionService.purgeCompletedTasks();
+
+        assertEquals(3, result.tasksPurged());
+        assertEquals(3, result.tasksArchived());
+        assertEquals(2, result.chunks());
+        assertEquals(List.of(saved.get(3).getId(), saved.get(4).getId()),
+                treatmentTaskRepository.findAll().stream().map(TreatmentTask::getId).sorted().toList());
+        assertEquals(List.of(saved.get(0).getId(), saved.get(1).getId(), saved.get(2).getId()),
+                jdbcTemplate.queryForList("SELECT id FROM treatment_tasks_archive ORDER BY id", Long.class));
+        assertEquals("RETENTION_PATIENT", jdbcTemplate.queryForObject(
+                "SELECT subject_patient FROM treatment_tasks_archive WHERE id = ?", String.class, saved.get(0).getId()));
+
+        RetentionResult again = retentionService.purgeCompletedTasks();
+        assertEquals(0, again.tasksPurged());
+        assertEquals(0, again.chunks());
+    }
+
+    private TreatmentTask task(Long planId, LocalDateTime startTime, TaskStatus status, LocalDateTime completedAt) {
+        return TreatmentTask.builder()
+                .treatmentPlanId(planId)
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient("RETENTION_PATIENT")
+                .startTime(startTime)
+                .status(status)
+                .completedAt(completedAt)
+                .build();
+    }
+}
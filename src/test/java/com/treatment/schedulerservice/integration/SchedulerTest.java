@@ -19,7 +19,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "scheduler.mode=full-scan")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class SchedulerTest {
 
@@ -63,5 +63,9 @@ class SchedulerTest {
         assertEquals(plan.getSubjectPatient(), task.getSubjectPatient());
         assertEquals(plan.getTreatmentAction(), task.getTreatmentAction());
         assertEquals(expectedTaskTime, task.getStartTime());
+
+        TreatmentPlan reloaded = treatmentPlanRepository.findById(plan.getId()).orElseThrow();
+        assertNotNull(reloaded.getGeneratedUntil(), "Expected the generation watermark to be advanced");
+        assertTrue(reloaded.getGeneratedUntil().isAfter(expectedTaskTime));
     }
 }
@@ -0,0 +1,108 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import com.treatment.schedulerservice.service.RetentionService;
+import com.treatment.schedulerservice.service.TaskArchiveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "scheduler.mode=full-scan",
+        "scheduler.retention.enabled=false",
+        "scheduler.retention.max-age-days=30",
+        "scheduler.retention.pause-ms=0",
+        "scheduler.archive.segment-size=2",
+        "scheduler.archive.min-segment-size=1"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TaskArchiveTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.now().minusDays(60).withSecond(30).withNano(0);
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("scheduler.archive.dir", () -> archiveDir.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesArchivedTasksToSegmentFilesAndServesThem() throws Exception {
+        treatmentTaskRepository.saveAll(List.of(
+                task("ARCHIVE_PATIENT_1", OLD.plusHours(2)),
+                task("ARCHIVE_PATIENT_1", OLD),
+                task("ARCHIVE_PATIENT_2", OLD.plusHours(1))));
+        retentionService.purgeCompletedTasks();
+
+        assertEquals(3, taskArchiveService.exportArchivedTasks());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM treatment_tasks_archive", Integer.class));
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".seg")).count());
+        }
+        mockMvc.perform(get("/api/tasks/archive").param("patient", "ARCHIVE_PATIENT_1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].startTime").value(OLD.toString()))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[1].startTime").value(OLD.plusHours(2).toString()));
+        mockMvc.perform(get("/api/tasks/archive")
+                        .param("from", OLD.plusHours(1).toString())
+                        .param("to", OLD.plusHours(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].subjectPatient").value("ARCHIVE_PATIENT_2"));
+    }
+
+    private TreatmentTask task(String patient, LocalDateTime startTime) {
+        return TreatmentTask.builder()
+                .treatmentPlanId(1L)
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient(patient)
+                .startTime(startTime)
+                .status(TaskStatus.COMPLETED)
+                .createdAt(startTime.minusDays(1))
+                .completedAt(startTime)
+                .build();
+    }
+}
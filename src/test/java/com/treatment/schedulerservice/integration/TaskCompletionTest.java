@@ -0,0 +1,104 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "scheduler.mode=full-scan",
+        "scheduler.completion.batch-size=2"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TaskCompletionTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final LocalDateTime COMPLETED_AT = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Test
+    void completesTasksByIdAndCountsAlreadyCompletedAndMissing() throws Exception {
+        treatmentTaskRepository.insertIfAbsent(List.of(task(1L, BASE), task(1L, BASE.plusHours(1)), task(1L, BASE.plusHours(2))));
+        Long first = idOf(1L, BASE);
+        Long second = idOf(1L, BASE.plusHours(1));
+        complete("{\"taskIds\":[" + first + "]}");
+
+        complete("{\"taskIds\":[" + first + "," + second + "," + second + ",-1],\"completedAt\":\"" + COMPLETED_AT + "\"}")
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.alreadyCompleted").value(1))
+                .andExpect(jsonPath("$.missing").value(1));
+
+        TreatmentTask completed = treatmentTaskRepository.findById(second).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, completed.getStatus());
+        assertEquals(COMPLETED_AT, completed.getCompletedAt());
+        assertNotEquals(COMPLETED_AT, treatmentTaskRepository.findById(first).orElseThrow().getCompletedAt(),
+                "An already completed task keeps its completion time");
+        assertEquals(TaskStatus.ACTIVE, treatmentTaskRepository.findById(idOf(1L, BASE.plusHours(2))).orElseThrow().getStatus());
+    }
+
+    @Test
+    void completesTasksOfAPlanInARange() throws Exception {
+        treatmentTaskRepository.insertIfAbsent(List.of(
+                task(2L, BASE), task(2L, BASE.plusHours(1)), task(2L, BASE.plusHours(5)), task(3L, BASE)));
+
+        complete("{\"planId\":2,\"from\":\"" + BASE + "\",\"to\":\"" + BASE.plusHours(2) + "\"}")
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.alreadyCompleted").value(0))
+                .andExpect(jsonPath("$.missing").value(0));
+        complete("{\"patient\":\"COMPLETION_PATIENT\",\"from\":\"" + BASE + "\",\"to\":\"" + BASE.plusHours(2) + "\"}")
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.alreadyCompleted").value(2));
+
+        assertEquals(TaskStatus.ACTIVE,
+                treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(2L, BASE.plusHours(5)).orElseThrow().getStatus());
+    }
+
+    @Test
+    void rejectsRequestWithoutIdsOrRange() throws Exception {
+        mockMvc.perform(post("/api/tasks/complete").contentType(MediaType.APPLICATION_JSON).content("{\"planId\":2}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/tasks/complete").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions complete(String body) throws Exception {
+        return mockMvc.perform(post("/api/tasks/complete").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    private Long idOf(Long planId, LocalDateTime startTime) {
+        return treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(planId, startTime).orElseThrow().getId();
+    }
+
+    private TreatmentTask task(Long planId, LocalDateTime startTime) {
+        return TreatmentTask.builder()
+                .treatmentPlanId(planId)
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient("COMPLETION_PATIENT")
+                .startTime(startTime)
+                .status(TaskStatus.ACTIVE)
+                .build();
+    }
+}
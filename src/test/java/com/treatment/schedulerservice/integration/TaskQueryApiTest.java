@@ -0,0 +1,116 @@
+package com.treatment.schedulerservice.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "scheduler.mode=full-scan")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TaskQueryApiTest {
+
+    private static final String PATIENT = "QUERY_PATIENT";
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void pagesThroughTasksInStartTimeOrder() throws Exception {
+        // plans 1 and 2 share start times, so the id breaks ties across page boundaries
+        List<TreatmentTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tasks.add(task(1L, BASE.plusHours(i), TaskStatus.ACTIVE));
+            tasks.add(task(2L, BASE.plusHours(i), i == 1 ? TaskStatus.COMPLETED : TaskStatus.ACTIVE));
+        }
+        treatmentTaskRepository.insertIfAbsent(tasks);
+
+        List<JsonNode> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/tasks").param("patient", PATIENT).param("limit", "4");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("tasks").forEach(seen::add);
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(2, pages);
+        assertEquals(6, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            String previous = seen.get(i - 1).get("startTime").asText();
+            String current = seen.get(i).get("startTime").asText();
+            int order = previous.compareTo(current);
+            assertTrue(order < 0 || order == 0 && seen.get(i - 1).get("id").asLong() < seen.get(i).get("id").asLong(),
+                    "Tasks out of order at " + i);
+        }
+        assertNull(seen.getFirst().get("createdAt"), "Only the projection is returned");
+    }
+
+    @Test
+    void filtersByStatusPlanAndTimeRange() throws Exception {
+        treatmentTaskRepository.insertIfAbsent(List.of(
+                task(3L, BASE, TaskStatus.ACTIVE),
+                task(3L, BASE.plusHours(1), TaskStatus.COMPLETED),
+                task(3L, BASE.plusHours(2), TaskStatus.ACTIVE),
+                task(4L, BASE.plusHours(1), TaskStatus.ACTIVE)));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("planId", "3")
+                        .param("status", "ACTIVE")
+                        .param("from", BASE.plusMinutes(30).toString())
+                        .param("to", BASE.plusHours(3).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(1))
+                .andExpect(jsonPath("$.tasks[0].treatmentPlanId").value(3))
+                .andExpect(jsonPath("$.tasks[0].startTime").value("2030-01-01T10:00:00"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void rejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/tasks").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private TreatmentTask task(Long planId, LocalDateTime startTime, TaskStatus status) {
+        return TreatmentTask.builder()
+                .treatmentPlanId(planId)
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient(PATIENT)
+                .startTime(startTime)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// runs the statement on the same H2 PostgreSQL mode as the application instead of a replaced embedded database
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:upsert_test;MODE=PostgreSQL")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TreatmentTaskUpsertTest {
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void insertIfAbsent_skipsExistingTasksWithoutFailing() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 1, 8, 0);
+        LocalDateTime second = first.plusHours(12);
+
+        int inserted = treatmentTaskRepository.insertIfAbsent(List.of(task(1L, first))).size();
+        List<TreatmentTask> reinserted = treatmentTaskRepository.insertIfAbsent(List.of(task(1L, first), task(1L, second)));
+
+        assertEquals(1, inserted);
+        assertEquals(1, reinserted.size());
+        assertEquals(second, reinserted.getFirst().getStartTime());
+        assertEquals(2, treatmentTaskRepository.count());
+        TreatmentTask stored = treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(1L, second).orElseThrow();
+        assertEquals(TaskStatus.ACTIVE, stored.getStatus());
+        assertNotNull(stored.getCreatedAt());
+    }
+
+    @Test
+    void insertIfAbsent_returnsGivenTasksAndDrawsIdsFromTheSequence() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<TreatmentTask> tasks = List.of(task(4L, start), task(4L, start.plusHours(12)), task(4L, start));
+
+        List<TreatmentTask> inserted = treatmentTaskRepository.insertIfAbsent(tasks);
+
+        assertEquals(2, inserted.size());
+        assertSame(tasks.get(0), inserted.get(0));
+        assertSame(tasks.get(1), inserted.get(1));
+        assertNull(inserted.get(0).getId());
+        TreatmentTask first = treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(4L, start).orElseThrow();
+        TreatmentTask second = treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(4L, start.plusHours(12)).orElseThrow();
+        assertNotNull(first.getId());
+        assertTrue(second.getId() > first.getId());
+        assertEquals(inserted.get(0).getCreatedAt(), first.getCreatedAt());
+    }
+
+    @Test
+    void insertIfAbsent_keepsStatusOfExistingTask() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        TreatmentTask completed = task(2L, start);
+        completed.setStatus(TaskStatus.COMPLETED);
+        treatmentTaskRepository.insertIfAbsent(List.of(completed));
+
+        int inserted = treatmentTaskRepository.insertIfAbsent(List.of(task(2L, start))).size();
+
+        assertEquals(0, inserted);
+        assertEquals(TaskStatus.COMPLETED,
+                treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(2L, start).orElseThrow().getStatus());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void insertIfAbsent_skipsTaskInsertedByConcurrentWriter() throws Exception {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 1, 8, 0);
+        LocalDateTime second = first.plusHours(12);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> firstWriter = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+                int inserted = treatmentTaskRepository.insertIfAbsent(List.of(task(3L, first))).size();
+                firstInserted.countDown();
+                await(secondStarted);
+                // let the second writer reach the uncommitted row before committing it
+                sleep(300);
+                return inserted;
+            }));
+            await(firstInserted);
+            CompletableFuture<List<TreatmentTask>> secondWriter = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+                secondStarted.countDown();
+                return treatmentTaskRepository.insertIfAbsent(List.of(task(3L, first), task(3L, second)));
+            }));
+
+            assertEquals(1, firstWriter.get(10, TimeUnit.SECONDS));
+            List<TreatmentTask> inserted = secondWriter.get(10, TimeUnit.SECONDS);
+            assertEquals(List.of(second), inserted.stream().map(TreatmentTask::getStartTime).toList());
+            assertEquals(2, treatmentTaskRepository.findAll().stream().filter(task -> task.getTreatmentPlanId() == 3L).count());
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> treatmentTaskRepository.deleteAll(
+                    treatmentTaskRepository.findAll().stream().filter(task -> task.getTreatmentPlanId() == 3L).toList()));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        }
+    }
+
+    private TreatmentTask task(Long planId, LocalDateTime startTime) {
+        return TreatmentTask.builder()
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient("UPSERT_PATIENT")
+                .startTime(startTime)
+                .treatmentPlanId(planId)
+                .build();
+    }
+}
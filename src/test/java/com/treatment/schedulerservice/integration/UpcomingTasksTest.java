@@ -0,0 +1,72 @@
+package com.treatment.schedulerservice.integration;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "scheduler.mode=full-scan")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UpcomingTasksTest {
+
+    private static final String PATIENT = "UPCOMING_PATIENT";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TreatmentTaskRepository treatmentTaskRepository;
+
+    @Test
+    void completedTasksLeaveTheCachedUpcomingTasks() throws Exception {
+        LocalDateTime soon = LocalDateTime.now().plusHours(1).withSecond(30).withNano(0);
+        treatmentTaskRepository.insertIfAbsent(List.of(task(soon), task(soon.plusHours(2)), task(soon.plusHours(12))));
+
+        mockMvc.perform(get("/api/tasks/upcoming").param("patient", PATIENT).param("hours", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        Long first = treatmentTaskRepository.findByTreatmentPlanIdAndStartTime(1L, soon).orElseThrow().getId();
+        mockMvc.perform(post("/api/tasks/complete").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskIds\":[" + first + "]}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/upcoming").param("patient", PATIENT).param("hours", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].startTime").value(soon.plusHours(2).toString()));
+    }
+
+    @Test
+    void rejectsBlankPatient() throws Exception {
+        mockMvc.perform(get("/api/tasks/upcoming").param("patient", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    private TreatmentTask task(LocalDateTime startTime) {
+        return TreatmentTask.builder()
+                .treatmentPlanId(1L)
+                .treatmentAction(TreatmentAction.ACTION_A)
+                .subjectPatient(PATIENT)
+                .startTime(startTime)
+                .status(TaskStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package com.treatment.schedulerservice.unit.archive;
+
+import com.treatment.schedulerservice.archive.TaskSegmentReader;
+import com.treatment.schedulerservice.archive.TaskSegmentWriter;
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.dto.ArchivedTask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSegmentTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final int TASKS = 20_000;
+    private static final int PATIENTS = 50;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEveryTaskAcrossBlocks() throws Exception {
+        List<ArchivedTask> tasks = tasks();
+        Path file = directory.resolve("tasks.seg");
+        List<ArchivedTask> shuffled = new ArrayList<>(tasks);
+        Collections.shuffle(shuffled, new Random(42));
+
+        TaskSegmentWriter.write(file, shuffled);
+        TaskSegmentReader reader = TaskSegmentReader.open(file);
+
+        assertEquals(TASKS, reader.rowCount());
+        assertEquals(tasks, reader.find(null, null, null, Integer.MAX_VALUE));
+        assertFalse(Files.exists(directory.resolve("tasks.seg.tmp")));
+    }
+
+    @Test
+    void filtersByPatientAndTimeRange() throws Exception {
+        List<ArchivedTask> tasks = tasks();
+        Path file = directory.resolve("tasks.seg");
+        TaskSegmentWriter.write(file, tasks);
+        TaskSegmentReader reader = TaskSegmentReader.open(file);
+        LocalDateTime from = BASE.plusHours(5_000);
+        LocalDateTime to = BASE.plusHours(12_000);
+
+        List<ArchivedTask> expected = tasks.stream()
+                .filter(task -> task.subjectPatient().equals("PATIENT_7"))
+                .filter(task -> !task.startTime().isBefore(from) && task.startTime().isBefore(to))
+                .toList();
+        assertEquals(expected, reader.find("PATIENT_7", from, to, Integer.MAX_VALUE));
+        assertEquals(expected.subList(0, 3), reader.find("PATIENT_7", from, to, 3));
+        assertEquals(List.of(), reader.find("UNKNOWN", null, null, 10));
+        assertEquals(List.of(), reader.find(null, BASE.minusDays(1), BASE, 10));
+    }
+
+    @Test
+    void storesTasksInUnder20BytesEach() throws Exception {
+        List<ArchivedTask> tasks = generatedTasks();
+        Path file = directory.resolve("tasks.seg");
+        TaskSegmentWriter.write(file, tasks);
+
+        double bytesPerTask = (double) Files.size(file) / tasks.size();
+        // a treatment_tasks row takes over 100 bytes before indexes; most of a segment are the microseconds of the
+        // creation and completion times, which do not compress
+        assertTrue(bytesPerTask < 20, "Expected under 20 bytes per task, got " + bytesPerTask);
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSegments() throws Exception {
+        Path file = directory.resolve("other.seg");
+        Files.writeString(file, "not a segment at all");
+
+        assertThrows(IllegalArgumentException.class, () -> TaskSegmentReader.open(file));
+    }
+
+    /**
+     * Tasks as the scheduler creates them: plans of many patients with daily and weekly patterns at arbitrary
+     * minutes, ids handed out per generation run in plan order rather than in start time order, lead times of up
+     * to the look-ahead window and completions at random times after the start.
+     */
+    private static List<ArchivedTask> generatedTasks() {
+        Random random = new Random(11);
+        int plans = 2_000;
+        long[] planPatient = new long[plans];
+        TreatmentAction[] planAction = new TreatmentAction[plans];
+        int[][] planMinutes = new int[plans][];
+        int[] planWeekday = new int[plans];
+        for (int plan = 0; plan < plans; plan++) {
+            planPatient[plan] = random.nextInt(800);
+            planAction[plan] = TreatmentAction.values()[random.nextInt(TreatmentAction.values().length)];
+            planMinutes[plan] = random.ints(1 + random.nextInt(4), 0, 24 * 60).sorted().distinct().toArray();
+            // a third of the plans are weekly
+            planWeekday[plan] = random.nextInt(3) == 0 ? random.nextInt(7) : -1;
+        }
+        List<ArchivedTask> tasks = new ArrayList<>();
+        long nextId = 1_000;
+        for (int day = 0; tasks.size() < TASKS; day++) {
+            for (int plan = 0; plan < plans && tasks.size() < TASKS; plan++) {
+                if (planWeekday[plan] >= 0 && planWeekday[plan] != day % 7) {
+                    continue;
+                }
+                for (int minute : planMinutes[plan]) {
+                    LocalDateTime start = BASE.plusDays(day).plusMinutes(minute);
+                    boolean completed = random.nextInt(10) > 0;
+                    tasks.add(new ArchivedTask(
+                            nextId++,
+                            100L + plan,
+                            "PATIENT_" + planPatient[plan],
+                            planAction[plan],
+                            start,
+                            completed ? TaskStatus.COMPLETED : TaskStatus.ACTIVE,
+                            start.minusSeconds(random.nextInt(3_600)).withNano(random.nextInt(1_000_000) * 1_000),
+                            completed ? start.plusSeconds(random.nextInt(4 * 3_600)).withNano(random.nextInt(1_000_000) * 1_000) : null));
+                }
+            }
+            // ids are allocated by the sequence in blocks of 50 per run
+            nextId += random.nextInt(50);
+        }
+        tasks.sort(Comparator.comparing(ArchivedTask::startTime).thenComparing(ArchivedTask::id));
+        return tasks;
+    }
+
+    private static List<ArchivedTask> tasks() {
+        Random random = new Random(7);
+        List<ArchivedTask> tasks = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            LocalDateTime start = BASE.plusHours(i);
+            int patient = i % PATIENTS;
+            boolean completed = random.nextInt(10) > 0;
+            tasks.add(new ArchivedTask(
+                    1_000L + i,
+                    100L + patient,
+                    "PATIENT_" + patient,
+                    patient % 2 == 0 ? TreatmentAction.ACTION_A : TreatmentAction.ACTION_B,
+                    start,
+                    completed ? TaskStatus.COMPLETED : TaskStatus.ACTIVE,
+                    start.minusDays(2).withNano(123_456_000),
+                    completed ? start.plusMinutes(random.nextInt(120)) : null));
+        }
+        tasks.sort(Comparator.comparing(ArchivedTask::startTime).thenComparing(ArchivedTask::id));
+        return tasks;
+    }
+}
@@ -0,0 +1,69 @@
+package com.treatment.schedulerservice.unit.metrics;
+
+import com.treatment.schedulerservice.metrics.LeadTimeHistogram;
+import com.treatment.schedulerservice.metrics.RunStatistics;
+import com.treatment.schedulerservice.metrics.SchedulerMetrics.Phase;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunStatisticsTest {
+
+    @Test
+    void reportsLeadTimePercentilesAtMinuteResolution() {
+        RunStatistics statistics = new RunStatistics(Duration.ofHours(1));
+        for (int minutes = 1; minutes <= 100; minutes++) {
+            statistics.recordLeadTime(Duration.ofSeconds(minutes * 30L + 5));
+        }
+
+        assertEquals(Duration.ofMinutes(25), statistics.leadTimePercentile(0.5));
+        assertEquals(Duration.ofMinutes(49), statistics.leadTimePercentile(0.99));
+        assertEquals(0, statistics.getLateTasks());
+    }
+
+    @Test
+    void countsLateTasksAsZeroLeadTimeAndClampsLongLeadTimes() {
+        RunStatistics statistics = new RunStatistics(Duration.ofMinutes(10));
+        statistics.recordLeadTime(Duration.ofMinutes(-3));
+        statistics.recordLeadTime(Duration.ofHours(5));
+
+        assertEquals(1, statistics.getLateTasks());
+        assertEquals(Duration.ZERO, statistics.leadTimePercentile(0.5));
+        assertEquals(Duration.ofMinutes(10), statistics.leadTimePercentile(0.99));
+    }
+
+    @Test
+    void mergesEncodedLeadTimesOfSeveralRuns() {
+        RunStatistics first = new RunStatistics(Duration.ofDays(7));
+        for (int i = 0; i < 100; i++) {
+            first.recordLeadTime(Duration.ofMinutes(10));
+        }
+        RunStatistics second = new RunStatistics(Duration.ofDays(7));
+        for (int i = 0; i < 10; i++) {
+            second.recordLeadTime(Duration.ofDays(5));
+        }
+
+        LeadTimeHistogram merged = new LeadTimeHistogram();
+        merged.addEncoded(first.leadTimeHistogram().encode());
+        merged.addEncoded(second.leadTimeHistogram().encode());
+
+        assertEquals(110, merged.getTotal());
+        assertEquals(Duration.ofMinutes(10), merged.percentile(0.5));
+        assertEquals(Duration.ofDays(5), merged.percentile(0.99));
+        assertTrue(first.leadTimeHistogram().encode().length <= 4);
+    }
+
+    @Test
+    void hasNoPercentileWithoutTasksAndSumsPhaseTimes() {
+        RunStatistics statistics = new RunStatistics(Duration.ofHours(1));
+        statistics.addPhase(Phase.INSERT, 1_500_000);
+        statistics.addPhase(Phase.INSERT, 2_000_000);
+
+        assertNull(statistics.leadTimePercentile(0.5));
+        assertEquals(0, statistics.leadTimeHistogram().encode().length);
+        assertEquals(3, statistics.getPhaseMillis(Phase.INSERT));
+        assertEquals(0, statistics.getPhaseMillis(Phase.FETCH));
+    }
+}
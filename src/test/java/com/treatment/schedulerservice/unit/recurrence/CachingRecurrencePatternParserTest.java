@@ -0,0 +1,50 @@
+package com.treatment.schedulerservice.unit.recurrence;
+
+import com.treatment.schedulerservice.helper.RecurrencePattern;
+import com.treatment.schedulerservice.service.recurrence.CachingRecurrencePatternParser;
+import com.treatment.schedulerservice.service.recurrence.DefaultRecurrencePatternParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingRecurrencePatternParserTest {
+
+    private final DefaultRecurrencePatternParser delegate = spy(new DefaultRecurrencePatternParser());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CachingRecurrencePatternParser parser = new CachingRecurrencePatternParser(delegate, meterRegistry, 100);
+
+    @Test
+    void parse_samePatternTwice_parsesOnceAndSharesInstance() {
+        RecurrencePattern first = parser.parse("DAILY:08:00,20:00");
+        RecurrencePattern second = parser.parse("DAILY:08:00,20:00");
+
+        assertSame(first, second);
+        verify(delegate, times(1)).parse("DAILY:08:00,20:00");
+        assertEquals(1, cacheGets("hit"));
+        assertEquals(1, cacheGets("miss"));
+    }
+
+    @Test
+    void parse_invalidPattern_isNotCached() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("INVALID:PATTERN"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("INVALID:PATTERN"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(null));
+
+        verify(delegate, times(2)).parse("INVALID:PATTERN");
+        assertEquals(0, meterRegistry.get("cache.size").tag("cache", "recurrence_patterns").gauge().value());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "recurrence_patterns", "result", result).functionCounter().count();
+    }
+
+    @Test
+    void parsedPattern_isImmutable() {
+        RecurrencePattern pattern = parser.parse("DAILY:08:00");
+        assertThrows(UnsupportedOperationException.class, () -> pattern.getTimes().add(LocalTime.NOON));
+    }
+}
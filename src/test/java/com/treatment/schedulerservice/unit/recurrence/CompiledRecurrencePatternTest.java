@@ -0,0 +1,75 @@
+package com.treatment.schedulerservice.unit.recurrence;
+
+import com.treatment.schedulerservice.helper.CompiledRecurrencePattern;
+import com.treatment.schedulerservice.helper.EpochMinutes;
+import com.treatment.schedulerservice.helper.RecurrencePattern;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledRecurrencePatternTest {
+
+    @Test
+    void fill_resumesAfterFullBuffer() {
+        CompiledRecurrencePattern compiled = RecurrencePattern.daily(List.of(LocalTime.of(20, 0), LocalTime.of(8, 0)))
+                .getCompiled();
+        long from = EpochMinutes.floor(LocalDateTime.of(2024, 1, 1, 0, 0));
+        long to = EpochMinutes.floor(LocalDateTime.of(2024, 1, 3, 0, 0));
+        long[] buffer = new long[3];
+
+        int first = compiled.fill(from, to, 0, buffer, 0);
+        assertEquals(3, first);
+        assertEquals(LocalDateTime.of(2024, 1, 2, 8, 0), EpochMinutes.toLocalDateTime(buffer[2]));
+
+        int second = compiled.fill(buffer[2] + 1, to, 0, buffer, 0);
+        assertEquals(1, second);
+        assertEquals(LocalDateTime.of(2024, 1, 2, 20, 0), EpochMinutes.toLocalDateTime(buffer[0]));
+    }
+
+    @Test
+    void nextAtOrAfter_weeklyBeforeEpoch() {
+        CompiledRecurrencePattern compiled = RecurrencePattern.weekly(DayOfWeek.SUNDAY, List.of(LocalTime.of(6, 15)))
+                .getCompiled();
+        long next = compiled.nextAtOrAfter(EpochMinutes.floor(LocalDateTime.of(1969, 12, 25, 12, 0)), 0);
+        assertEquals(LocalDateTime.of(1969, 12, 28, 6, 15), EpochMinutes.toLocalDateTime(next));
+    }
+
+    @Test
+    void nextAtOrAfter_monthlyMatchesCalendarForEveryDayAcrossLeapCycle() {
+        for (int dayOfMonth : new int[]{1, 15, 28, 29, 30, 31}) {
+            CompiledRecurrencePattern compiled = RecurrencePattern.monthly(dayOfMonth, List.of(LocalTime.of(9, 0)))
+                    .getCompiled();
+            for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(1901, 4, 1)); date = date.plusDays(1)) {
+                LocalDate expected = date.withDayOfMonth(Math.min(dayOfMonth, date.lengthOfMonth()));
+                if (expected.isBefore(date)) {
+                    LocalDate nextMonth = date.plusMonths(1);
+                    expected = nextMonth.withDayOfMonth(Math.min(dayOfMonth, nextMonth.lengthOfMonth()));
+                }
+                long next = compiled.nextAtOrAfter(EpochMinutes.floor(date.atStartOfDay()), 0);
+                assertEquals(expected.atTime(9, 0), EpochMinutes.toLocalDateTime(next), "from " + date);
+            }
+        }
+    }
+
+    @Test
+    void nextAtOrAfter_onceHasNoOccurrenceAfterItFired() {
+        CompiledRecurrencePattern compiled = RecurrencePattern.once(List.of(LocalTime.of(10, 30))).getCompiled();
+        long onceDay = LocalDate.of(2024, 1, 1).toEpochDay();
+        long fired = EpochMinutes.floor(LocalDateTime.of(2024, 1, 1, 10, 30));
+
+        assertEquals(fired, compiled.nextAtOrAfter(fired, onceDay));
+        assertEquals(CompiledRecurrencePattern.NO_OCCURRENCE, compiled.nextAtOrAfter(fired + 1, onceDay));
+    }
+
+    @Test
+    void compile_rejectsSubMinuteTimes() {
+        RecurrencePattern pattern = RecurrencePattern.daily(List.of(LocalTime.of(8, 0, 30)));
+        assertThrows(IllegalArgumentException.class, pattern::getCompiled);
+    }
+}
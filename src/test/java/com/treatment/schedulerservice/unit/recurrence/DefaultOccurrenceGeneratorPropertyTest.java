@@ -0,0 +1,103 @@
+package com.treatment.schedulerservice.unit.recurrence;
+
+import com.treatment.schedulerservice.helper.RecurrencePattern;
+import com.treatment.schedulerservice.service.recurrence.DefaultOccurrenceGenerator;
+import com.treatment.schedulerservice.service.recurrence.OccurrenceGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultOccurrenceGeneratorPropertyTest {
+
+    private static final int SAMPLES = 2_000;
+
+    private final OccurrenceGenerator generator = new DefaultOccurrenceGenerator();
+    private final LegacyOccurrenceGenerator legacy = new LegacyOccurrenceGenerator();
+
+    @Test
+    void generate_matchesLegacyWalkOnRandomPatternsAndWindows() {
+        Random random = new Random(20240101L);
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            RecurrencePattern pattern = randomPattern(random);
+            // The legacy walk is only correct for windows starting at midnight and below its 1000 step cap
+            LocalDateTime from = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(3_000)).atStartOfDay();
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(900 * 24 * 60));
+            LocalDateTime planStart = from.minusDays(random.nextInt(10)).plusMinutes(random.nextInt(24 * 60));
+            LocalDateTime planEnd = random.nextBoolean() ? null : from.plusMinutes(random.nextInt(1000 * 24 * 60));
+
+            List<LocalDateTime> expected = sortedDistinct(legacy.generate(pattern, from, to, planStart, planEnd));
+            List<LocalDateTime> actual = generator.generate(pattern, from, to, planStart, planEnd);
+
+            assertEquals(expected, actual, () -> "Mismatch for " + pattern + " in [" + from + ", " + to
+                    + ") planStart=" + planStart + " planEnd=" + planEnd);
+        }
+    }
+
+    @Test
+    void stream_matchesGenerateOnRandomPatternsAndWindows() {
+        Random random = new Random(20240102L);
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            RecurrencePattern pattern = randomPattern(random);
+            LocalDateTime from = LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(random.nextInt(3_000 * 24 * 60));
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(400 * 24 * 60));
+            LocalDateTime planStart = from.minusDays(random.nextInt(10)).plusMinutes(random.nextInt(24 * 60));
+            LocalDateTime planEnd = random.nextBoolean() ? null : from.plusMinutes(random.nextInt(500 * 24 * 60));
+
+            List<LocalDateTime> expected = generator.generate(pattern, from, to, planStart, planEnd);
+            List<LocalDateTime> actual = generator.stream(pattern, from, planStart, planEnd)
+                    .takeWhile(occurrence -> occurrence.isBefore(to))
+                    .toList();
+
+            assertEquals(expected, actual, () -> "Mismatch for " + pattern + " in [" + from + ", " + to
+                    + ") planStart=" + planStart + " planEnd=" + planEnd);
+        }
+    }
+
+    @Test
+    void generate_daily_includesOccurrenceAfterMidnightWhenWindowCrossesIt() {
+        RecurrencePattern pattern = RecurrencePattern.daily(List.of(LocalTime.of(0, 10)));
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 23, 30);
+
+        List<LocalDateTime> occ = generator.generate(pattern, from, from.plusHours(1), null, null);
+
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 2, 0, 10)), occ);
+    }
+
+    @Test
+    void generate_daily_hasNoIterationCapForWideWindows() {
+        RecurrencePattern pattern = RecurrencePattern.daily(List.of(LocalTime.of(8, 0)));
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = from.plusYears(5);
+
+        List<LocalDateTime> occ = generator.generate(pattern, from, to, null, null);
+
+        assertEquals(1827, occ.size());
+        assertEquals(LocalDateTime.of(2028, 12, 31, 8, 0), occ.getLast());
+    }
+
+    private RecurrencePattern randomPattern(Random random) {
+        List<LocalTime> times = new ArrayList<>();
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            times.add(LocalTime.of(random.nextInt(24), random.nextInt(60)));
+        }
+        return switch (random.nextInt(4)) {
+            case 0 -> RecurrencePattern.daily(times);
+            case 1 -> RecurrencePattern.weekly(DayOfWeek.of(1 + random.nextInt(7)), times);
+            case 2 -> RecurrencePattern.monthly(1 + random.nextInt(31), times);
+            default -> RecurrencePattern.once(times);
+        };
+    }
+
+    private List<LocalDateTime> sortedDistinct(List<LocalDateTime> occurrences) {
+        return occurrences.stream().distinct().sorted().toList();
+    }
+}
@@ -11,6 +11,7 @@ import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -112,4 +113,57 @@ class DefaultOccurrenceGeneratorTest {
         assertFalse(occ.contains(LocalDateTime.of(2024, 1, 3, 8, 0)));
         assertTrue(occ.contains(LocalDateTime.of(2024, 1, 2, 8, 0)));
     }
+
+    @Test
+    void stream_daily_emitsOccurrencesInChronologicalOrder() {
+        RecurrencePattern pattern = RecurrencePattern.daily(List.of(LocalTime.of(20, 0), LocalTime.of(8, 0)));
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<LocalDateTime> occ = generator.stream(pattern, from, null, null).limit(3).toList();
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 1, 1, 20, 0),
+                LocalDateTime.of(2024, 1, 2, 8, 0),
+                LocalDateTime.of(2024, 1, 2, 20, 0)), occ);
+    }
+
+    @Test
+    void stream_endsAtPlanEnd() {
+        RecurrencePattern pattern = RecurrencePattern.weekly(DayOfWeek.MONDAY, List.of(LocalTime.of(10, 0)));
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 15, 10, 0);
+        List<LocalDateTime> occ = generator.stream(pattern, from, null, end).toList();
+        assertEquals(3, occ.size());
+        assertEquals(end, occ.getLast());
+    }
+
+    @Test
+    void nextAfter_isStrictlyAfterGivenTime() {
+        RecurrencePattern pattern = RecurrencePattern.monthly(31, List.of(LocalTime.of(9, 0)));
+        LocalDateTime time = LocalDateTime.of(2024, 1, 31, 9, 0);
+        assertEquals(Optional.of(LocalDateTime.of(2024, 2, 29, 9, 0)), generator.nextAfter(pattern, time, null, null));
+    }
+
+    @Test
+    void nextAfter_returnsEmptyAfterPlanEnd() {
+        RecurrencePattern pattern = RecurrencePattern.daily(List.of(LocalTime.of(8, 0)));
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 9, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 2, 7, 0);
+        assertTrue(generator.nextAfter(pattern, time, null, end).isEmpty());
+    }
+
+    @Test
+    void limit_farHorizonReturnsOnlyRequestedOccurrences() {
+        RecurrencePattern pattern = RecurrencePattern.monthly(15, List.of(LocalTime.of(9, 0)));
+        LocalDateTime from = LocalDateTime.of(2100, 6, 16, 0, 0);
+        List<LocalDateTime> occ = generator.limit(pattern, from, 2, null, null);
+        assertEquals(List.of(LocalDateTime.of(2100, 7, 15, 9, 0), LocalDateTime.of(2100, 8, 15, 9, 0)), occ);
+    }
+
+    @Test
+    void stream_once_usesPlanStartDate() {
+        RecurrencePattern pattern = RecurrencePattern.once(List.of(LocalTime.of(10, 30)));
+        LocalDateTime planStart = LocalDateTime.of(2024, 1, 1, 8, 0);
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 1, 10, 30)),
+                generator.stream(pattern, planStart, planStart, null).toList());
+        assertTrue(generator.stream(pattern, planStart.plusHours(3), planStart, null).findFirst().isEmpty());
+    }
 }
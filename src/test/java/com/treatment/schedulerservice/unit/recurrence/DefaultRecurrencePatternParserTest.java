@@ -11,6 +11,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,4 +62,10 @@ class DefaultRecurrencePatternParserTest {
     void parse_monthlyWithInvalidDay_throws(String pattern) {
         assertThrows(IllegalArgumentException.class, () -> parser.parse(pattern));
     }
+
+    @Test
+    void parse_timeWithSeconds_truncatesToTheMinute() {
+        RecurrencePattern p = parser.parse("DAILY:08:00:30,16:00:00");
+        assertEquals(List.of(LocalTime.of(8, 0), LocalTime.of(16, 0)), p.getTimes());
+    }
 }
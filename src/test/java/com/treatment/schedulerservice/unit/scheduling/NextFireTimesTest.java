@@ -0,0 +1,47 @@
+package com.treatment.schedulerservice.unit.scheduling;
+
+import com.treatment.schedulerservice.scheduling.NextFireTimes;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NextFireTimesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void pollDueRemovesOnlyPassedFireTimes() {
+        NextFireTimes fireTimes = new NextFireTimes();
+        fireTimes.reset(List.of(NOW.minusMinutes(1), NOW, NOW.plusMinutes(1)), NOW.plusHours(1));
+
+        assertTrue(fireTimes.pollDue(NOW));
+        assertEquals(NOW.plusMinutes(1), fireTimes.firstOrNull());
+        assertFalse(fireTimes.pollDue(NOW));
+        assertEquals(1, fireTimes.size());
+    }
+
+    @Test
+    void ignoresFireTimesBeyondHorizonAndDuplicates() {
+        NextFireTimes fireTimes = new NextFireTimes();
+        fireTimes.reset(List.of(), NOW.plusMinutes(10));
+
+        fireTimes.addAll(List.of(NOW.plusMinutes(5), NOW.plusMinutes(5), NOW.plusMinutes(11)));
+
+        assertEquals(1, fireTimes.size());
+        assertEquals(NOW.plusMinutes(5), fireTimes.firstOrNull());
+    }
+
+    @Test
+    void resetReplacesContent() {
+        NextFireTimes fireTimes = new NextFireTimes();
+        fireTimes.reset(List.of(NOW.plusMinutes(1)), NOW.plusHours(1));
+
+        fireTimes.reset(List.of(NOW.plusMinutes(2)), NOW.plusHours(1));
+
+        assertEquals(NOW.plusMinutes(2), fireTimes.firstOrNull());
+        assertEquals(1, fireTimes.size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.treatment.schedulerservice.unit.scheduling;
+
+import com.treatment.schedulerservice.scheduling.RetentionJob;
+import com.treatment.schedulerservice.scheduling.TaskArchiveJob;
+import com.treatment.schedulerservice.service.RetentionService;
+import com.treatment.schedulerservice.service.TaskArchiveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskArchiveJobTest {
+
+    @Mock
+    private RetentionService retentionService;
+
+    @Mock
+    private TaskArchiveService taskArchiveService;
+
+    @Test
+    void exportFailureIsContainedInTheArchiveJob() {
+        when(taskArchiveService.exportArchivedTasks()).thenThrow(new UncheckedIOException(new IOException("disk full")));
+
+        assertDoesNotThrow(() -> new TaskArchiveJob(taskArchiveService).exportArchivedTasks());
+        verifyNoInteractions(retentionService);
+    }
+
+    @Test
+    void retentionDoesNotExport() {
+        new RetentionJob(retentionService).purgeCompletedTasks();
+
+        verify(retentionService).purgeCompletedTasks();
+        verifyNoInteractions(taskArchiveService);
+    }
+}
@@ -42,4 +42,29 @@ class RecurrencePatternServiceDelegationTest {
 
         verify(generator).generate(eq(pattern), eq(from), eq(to), isNull(), isNull());
     }
+
+    @Test
+    void fillOccurrences_delegatesToGenerator() {
+        RecurrencePattern pattern = RecurrencePattern.daily(List.of(LocalTime.of(8,0)));
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+        long[] buffer = new long[8];
+
+        service.fillOccurrences(pattern, 42L, to, null, null, buffer);
+
+        verify(generator).generateEpochMinutes(eq(pattern), eq(42L), eq(to), isNull(), isNull(), same(buffer));
+    }
+
+    @Test
+    void lazyQueries_delegateToGenerator() {
+        RecurrencePattern pattern = RecurrencePattern.daily(List.of(LocalTime.of(8,0)));
+        LocalDateTime from = LocalDateTime.now();
+
+        service.streamOccurrences(pattern, from, null, null);
+        service.getNextOccurrence(pattern, from, null, null);
+        service.getFirstOccurrences(pattern, from, 5, null, null);
+
+        verify(generator).stream(eq(pattern), eq(from), isNull(), isNull());
+        verify(generator).nextAfter(eq(pattern), eq(from), isNull(), isNull());
+        verify(generator).limit(eq(pattern), eq(from), eq(5), isNull(), isNull());
+    }
 }
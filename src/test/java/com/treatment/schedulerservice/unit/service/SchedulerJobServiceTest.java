@@ -0,0 +1,130 @@
+package com.treatment.schedulerservice.unit.service;
+
+import com.treatment.schedulerservice.domain.JobStatus;
+import com.treatment.schedulerservice.dto.GenerationResult;
+import com.treatment.schedulerservice.metrics.RunProgress;
+import com.treatment.schedulerservice.service.SchedulerJob;
+import com.treatment.schedulerservice.service.SchedulerJobService;
+import com.treatment.schedulerservice.service.TreatmentSchedulerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerJobServiceTest {
+
+    @Mock
+    private TreatmentSchedulerService schedulerService;
+
+    @InjectMocks
+    private SchedulerJobService schedulerJobService;
+
+    @Test
+    void mergesRequestsIntoTheRunningJob() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(schedulerService.generateTasks(any(RunProgress.class))).then(invocation -> {
+            RunProgress progress = invocation.getArgument(0);
+            progress.plansTotal(2);
+            progress.chunkDone(1, 3);
+            started.countDown();
+            release.await();
+            return new GenerationResult(List.of());
+        });
+
+        SchedulerJob job = schedulerJobService.submit();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        SchedulerJob merged = schedulerJobService.submit();
+
+        assertSame(job, merged);
+        assertEquals(2, job.getRequests());
+        assertEquals(JobStatus.RUNNING, job.getStatus());
+        assertEquals(2, job.getPlansTotal());
+        assertEquals(1, job.getPlansDone());
+        assertEquals(3, job.getTasksCreated());
+
+        release.countDown();
+        await(() -> !job.isRunning());
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertNotNull(job.getFinishedAt());
+        verify(schedulerService, times(1)).generateTasks(any(RunProgress.class));
+        assertSame(job, schedulerJobService.findJob(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void startsANewJobOnceThePreviousOneFinished() {
+        when(schedulerService.generateTasks(any(RunProgress.class)))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(new GenerationResult(List.of()));
+
+        SchedulerJob first = schedulerJobService.submit();
+        await(() -> !first.isRunning());
+        SchedulerJob second = schedulerJobService.submit();
+        await(() -> !second.isRunning());
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(JobStatus.FAILED, first.getStatus());
+        assertEquals("database unavailable", first.getError());
+        assertEquals(JobStatus.COMPLETED, second.getStatus());
+        assertTrue(schedulerJobService.findJob("unknown").isEmpty());
+    }
+
+    @Test
+    void dueRunsDoNotOverlapAJob() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(schedulerService.generateTasks(any(RunProgress.class))).then(invocation -> {
+            started.countDown();
+            release.await();
+            return new GenerationResult(List.of());
+        });
+
+        SchedulerJob job = schedulerJobService.submit();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertFalse(schedulerJobService.runDueTasks());
+        verify(schedulerService, never()).generateDueTasks();
+
+        release.countDown();
+        await(() -> !job.isRunning());
+        assertTrue(schedulerJobService.runDueTasks());
+        verify(schedulerService).generateDueTasks();
+    }
+
+    @Test
+    void errorFailsTheJobInsteadOfLeavingItRunning() {
+        when(schedulerService.generateTasks(any(RunProgress.class)))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(new GenerationResult(List.of()));
+
+        SchedulerJob first = schedulerJobService.submit();
+        await(() -> !first.isRunning());
+        SchedulerJob second = schedulerJobService.submit();
+        await(() -> !second.isRunning());
+
+        assertEquals(JobStatus.FAILED, first.getStatus());
+        assertEquals("java.lang.StackOverflowError", first.getError());
+        assertEquals(JobStatus.COMPLETED, second.getStatus());
+        assertTrue(schedulerJobService.runDueTasks());
+    }
+
+    private void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the job");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.treatment.schedulerservice.unit.service;
+
+import com.treatment.schedulerservice.dto.GenerationResult;
+import com.treatment.schedulerservice.dto.RunSummary;
+import com.treatment.schedulerservice.entity.SchedulerRun;
+import com.treatment.schedulerservice.metrics.LeadTimeHistogram;
+import com.treatment.schedulerservice.metrics.RunStatistics;
+import com.treatment.schedulerservice.repository.SchedulerRunRepository;
+import com.treatment.schedulerservice.service.SchedulerRunService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerRunServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    @Mock
+    private SchedulerRunRepository schedulerRunRepository;
+
+    @InjectMocks
+    private SchedulerRunService schedulerRunService;
+
+    @Test
+    void summarizesDurationsAndThroughput() {
+        // newest first, durations 100..1000 ms
+        List<SchedulerRun> runs = LongStream.rangeClosed(1, 10)
+                .map(i -> 11 - i)
+                .mapToObj(i -> run(i, i * 100, 20, 5))
+                .toList();
+        when(schedulerRunRepository.findAllByOrderByStartedAtDescIdDesc(Limit.of(10))).thenReturn(runs);
+
+        RunSummary summary = schedulerRunService.summarizeRecentRuns(10);
+
+        assertEquals(10, summary.runs());
+        assertEquals(START.plusMinutes(1), summary.from());
+        assertEquals(START.plusMinutes(10), summary.to());
+        assertEquals(200, summary.plansProcessed());
+        assertEquals(50, summary.tasksCreated());
+        assertEquals(550, summary.durationAvgMs());
+        assertEquals(500, summary.durationP50Ms());
+        assertEquals(1000, summary.durationP99Ms());
+        assertEquals(1000, summary.durationMaxMs());
+        assertEquals(200 / 5.5, summary.plansPerSecond(), 1e-9);
+        assertEquals(50 / 5.5, summary.tasksPerSecond(), 1e-9);
+        assertNull(summary.leadTimeP50Seconds());
+    }
+
+    @Test
+    void summarizesLeadTimesOverTheTasksOfAllRuns() {
+        SchedulerRun manyShortLeadTimes = run(2, 100, 1, 100);
+        manyShortLeadTimes.setLeadTimeHistogram(histogram(10, 100));
+        SchedulerRun fewLongLeadTimes = run(1, 100, 1, 10);
+        fewLongLeadTimes.setLeadTimeHistogram(histogram(50, 10));
+        SchedulerRun withoutHistogram = run(0, 100, 1, 0);
+        when(schedulerRunRepository.findAllByOrderByStartedAtDescIdDesc(Limit.of(3)))
+                .thenReturn(List.of(manyShortLeadTimes, fewLongLeadTimes, withoutHistogram));
+
+        RunSummary summary = schedulerRunService.summarizeRecentRuns(3);
+
+        assertEquals(600, summary.leadTimeP50Seconds());
+        assertEquals(3000, summary.leadTimeP99Seconds());
+    }
+
+    @Test
+    void prunesTheHistoryByIdEveryTenthOfItsSize() {
+        ReflectionTestUtils.setField(schedulerRunService, "maxHistory", 100);
+        long[] nextId = {500};
+        when(schedulerRunRepository.save(any())).thenAnswer(invocation -> {
+            SchedulerRun run = invocation.getArgument(0);
+            run.setId(nextId[0]++);
+            return run;
+        });
+
+        for (int i = 0; i < 21; i++) {
+            schedulerRunService.recordRun(START, 1_000_000, new GenerationResult(List.of()),
+                    new RunStatistics(Duration.ofHours(1)));
+        }
+
+        verify(schedulerRunRepository).deleteUpToId(400L);
+        verify(schedulerRunRepository).deleteUpToId(410L);
+        verify(schedulerRunRepository).deleteUpToId(420L);
+        verify(schedulerRunRepository, times(3)).deleteUpToId(anyLong());
+    }
+
+    @Test
+    void summaryOfNoRunsIsEmpty() {
+        when(schedulerRunRepository.findAllByOrderByStartedAtDescIdDesc(any())).thenReturn(List.of());
+
+        assertEquals(RunSummary.empty(), schedulerRunService.summarizeRecentRuns(20));
+    }
+
+    private static byte[] histogram(int minute, long count) {
+        LeadTimeHistogram histogram = new LeadTimeHistogram();
+        histogram.add(minute, count);
+        return histogram.encode();
+    }
+
+    private SchedulerRun run(long minute, long durationMs, int plans, int tasks) {
+        return SchedulerRun.builder()
+                .id(minute)
+                .startedAt(START.plusMinutes(minute))
+                .durationMs(durationMs)
+                .plansProcessed(plans)
+                .tasksCreated(tasks)
+                .build();
+    }
+}
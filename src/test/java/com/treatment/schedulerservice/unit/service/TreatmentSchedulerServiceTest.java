@@ -2,27 +2,48 @@ package com.treatment.schedulerservice.unit.service;
 
 import com.treatment.schedulerservice.domain.TaskStatus;
 import com.treatment.schedulerservice.domain.TreatmentAction;
-import com.treatment.schedulerservice.entity.TreatmentPlan;
+import com.treatment.schedulerservice.dto.ActivePlan;
+import com.treatment.schedulerservice.dto.ChunkResult;
+import com.treatment.schedulerservice.dto.GenerationResult;
+import com.treatment.schedulerservice.dto.TaskKey;
+import com.treatment.schedulerservice.entity.SchedulerRun;
 import com.treatment.schedulerservice.entity.TreatmentTask;
+import com.treatment.schedulerservice.event.PlanScheduleChangedEvent;
+import com.treatment.schedulerservice.helper.EpochMinutes;
+import com.treatment.schedulerservice.metrics.RunProgress;
+import com.treatment.schedulerservice.metrics.SchedulerMetrics;
 import com.treatment.schedulerservice.repository.TreatmentPlanRepository;
 import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import com.treatment.schedulerservice.service.PartitionLeaseService;
 import com.treatment.schedulerservice.service.RecurrencePatternService;
+import com.treatment.schedulerservice.service.SchedulerRunService;
 import com.treatment.schedulerservice.service.TreatmentSchedulerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.stubbing.Answer;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,25 +58,49 @@ class TreatmentSchedulerServiceTest {
     @Mock
     private RecurrencePatternService recurrenceService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SchedulerRunService schedulerRunService;
+
+    @Mock
+    private PartitionLeaseService partitionLeaseService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private SchedulerMetrics schedulerMetrics = new SchedulerMetrics(meterRegistry, 300_000);
+
     @InjectMocks
     private TreatmentSchedulerService schedulerService;
 
-    private TreatmentPlan samplePlan;
+    private ActivePlan samplePlan;
 
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(schedulerService, "lookAheadHours", 1);
+        lenient().when(partitionLeaseService.acquirePartitions(anyInt()))
+                .then(invocation -> IntStream.range(0, invocation.<Integer>getArgument(0)).boxed().toList());
+        lenient().when(schedulerRunService.recordRun(any(), anyLong(), any(), any()))
+                .thenReturn(SchedulerRun.builder().id(7L).build());
 
         LocalDateTime now = LocalDateTime.now();
-        samplePlan = TreatmentPlan.builder()
-                .id(100L)
-                .treatmentAction(TreatmentAction.ACTION_A)
-                .subjectPatient("PATIENT_MOCK")
-                .startTime(now.minusMinutes(10))
-                .endTime(now.plusDays(1))
-                .recurrencePattern("DAILY:10:00")
-                .active(true)
-                .build();
+        samplePlan = new ActivePlan(
+                100L,
+                TreatmentAction.ACTION_A,
+                "PATIENT_MOCK",
+                now.minusMinutes(10),
+                now.plusDays(1),
+                "DAILY:10:00",
+                null,
+                null);
     }
 
     @Test
@@ -63,18 +108,20 @@ class TreatmentSchedulerServiceTest {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime occurrence = now.plusMinutes(30).withSecond(0).withNano(0);
 
-        when(planRepository.findActiveValidPlans(any())).thenReturn(List.of(samplePlan));
-        when(recurrenceService.getNextOccurrences(any(), any(), any(), any(), any())).thenReturn(List.of(occurrence));
-        when(taskRepository.findByTreatmentPlanIdAndStartTime(samplePlan.getId(), occurrence))
-                .thenReturn(Optional.empty());
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(samplePlan));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(eq(List.of(samplePlan.id())), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
 
         int generated = schedulerService.generateTasksNow();
 
         assertEquals(1, generated);
-        ArgumentCaptor<TreatmentTask> captor = ArgumentCaptor.forClass(TreatmentTask.class);
-        verify(taskRepository, times(1)).save(captor.capture());
-        TreatmentTask saved = captor.getValue();
-        assertEquals(samplePlan.getId(), saved.getTreatmentPlanId());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TreatmentTask>> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository, times(1)).insertIfAbsent(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        TreatmentTask saved = captor.getValue().getFirst();
+        assertEquals(samplePlan.id(), saved.getTreatmentPlanId());
         assertEquals(occurrence, saved.getStartTime());
         assertEquals(TaskStatus.ACTIVE, saved.getStatus());
     }
@@ -84,32 +131,31 @@ class TreatmentSchedulerServiceTest {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime occurrence = now.plusMinutes(20).withSecond(0).withNano(0);
 
-        when(planRepository.findActiveValidPlans(any())).thenReturn(List.of(samplePlan));
-        when(recurrenceService.getNextOccurrences(any(), any(), any(), any(), any())).thenReturn(List.of(occurrence));
-        when(taskRepository.findByTreatmentPlanIdAndStartTime(samplePlan.getId(), occurrence))
-                .thenReturn(Optional.of(TreatmentTask.builder().id(1L).build()));
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(samplePlan));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any()))
+                .thenReturn(List.of(new TaskKey(samplePlan.id(), occurrence)));
 
         int generated = schedulerService.generateTasksNow();
 
         assertEquals(0, generated);
-        verify(taskRepository, never()).save(any());
+        verify(taskRepository, never()).insertIfAbsent(any());
     }
 
     @Test
-    void handlesUniqueConstraintViolationGracefully() {
+    void countsOnlyTasksActuallyInserted() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime occurrence = now.plusMinutes(15).withSecond(0).withNano(0);
 
-        when(planRepository.findActiveValidPlans(any())).thenReturn(List.of(samplePlan));
-        when(recurrenceService.getNextOccurrences(any(), any(), any(), any(), any())).thenReturn(List.of(occurrence));
-        when(taskRepository.findByTreatmentPlanIdAndStartTime(samplePlan.getId(), occurrence))
-                .thenReturn(Optional.empty());
-        when(taskRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(samplePlan));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).thenReturn(List.of());
 
         int generated = schedulerService.generateTasksNow();
 
-        assertEquals(1, generated);
-        verify(taskRepository, times(1)).save(any());
+        assertEquals(0, generated);
+        verify(taskRepository, times(1)).insertIfAbsent(any());
     }
 
     @Test
@@ -117,33 +163,292 @@ class TreatmentSchedulerServiceTest {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime end = now.plusMinutes(40).withSecond(0).withNano(0);
 
-        TreatmentPlan plan = TreatmentPlan.builder()
-                .id(samplePlan.getId())
-                .treatmentAction(samplePlan.getTreatmentAction())
-                .subjectPatient(samplePlan.getSubjectPatient())
-                .startTime(samplePlan.getStartTime())
-                .endTime(end)
-                .recurrencePattern(samplePlan.getRecurrencePattern())
-                .active(true)
-                .build();
-
-        when(planRepository.findActiveValidPlans(any())).thenReturn(List.of(plan));
-        when(recurrenceService.getNextOccurrences(any(), any(), any(), any(), any()))
-                .thenReturn(List.of(end));
-        when(taskRepository.findByTreatmentPlanIdAndStartTime(plan.getId(), end)).thenReturn(Optional.empty());
+        ActivePlan plan = new ActivePlan(
+                samplePlan.id(),
+                samplePlan.treatmentAction(),
+                samplePlan.subjectPatient(),
+                samplePlan.startTime(),
+                end,
+                samplePlan.recurrencePattern(),
+                samplePlan.generatedUntil(),
+                samplePlan.nextFireAt());
+
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(plan));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any()))
+                .then(occurrences(end));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
+
+        int generated = schedulerService.generateTasksNow();
+        assertEquals(1, generated);
+        verify(taskRepository, times(1)).insertIfAbsent(any());
+    }
+
+    @Test
+    void readsPlansPageByPageAndLoadsExistingTaskKeysOncePerChunk() {
+        ReflectionTestUtils.setField(schedulerService, "chunkSize", 2);
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(30).withSecond(0).withNano(0);
+
+        when(planRepository.findActiveValidPlansAfter(any(), eq(1), eq(0), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(planWithId(1L), planWithId(2L)));
+        when(planRepository.findActiveValidPlansAfter(any(), eq(1), eq(0), eq(2L), eq(Limit.of(2))))
+                .thenReturn(List.of(planWithId(3L)));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any()))
+                .then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
+
+        int generated = schedulerService.generateTasksNow();
+
+        assertEquals(3, generated);
+        verify(planRepository, times(2)).findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any());
+        verify(taskRepository).findTaskKeys(eq(List.of(1L, 2L)), any(), any());
+        verify(taskRepository).findTaskKeys(eq(List.of(3L)), any(), any());
+        verify(taskRepository, times(2)).insertIfAbsent(any());
+        verify(planRepository).advanceGeneratedUntil(eq(List.of(1L, 2L)), any());
+        verify(planRepository).advanceGeneratedUntil(eq(List.of(3L)), any());
+        verify(taskRepository, never()).findByTreatmentPlanIdAndStartTime(any(), any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void failedChunkDoesNotAffectOtherChunks() {
+        ReflectionTestUtils.setField(schedulerService, "chunkSize", 1);
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(30).withSecond(0).withNano(0);
+
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(List.of(planWithId(1L)))
+                .thenReturn(List.of(planWithId(2L)))
+                .thenReturn(List.of());
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .then(returnsFirstArg());
+
+        GenerationResult result = schedulerService.generateTasks();
+
+        assertEquals(2, result.chunks().size());
+        assertTrue(result.chunks().get(0).failed());
+        assertFalse(result.chunks().get(1).failed());
+        assertEquals(1, result.tasksCreated());
+        assertEquals(1, result.failedChunks());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void recordsPipelineMetrics() {
+        ReflectionTestUtils.setField(schedulerService, "chunkSize", 1);
+        LocalDateTime first = LocalDateTime.now().plusMinutes(20).withSecond(0).withNano(0);
+        LocalDateTime second = first.plusMinutes(10);
+
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(List.of(planWithId(1L)))
+                .thenReturn(List.of(planWithId(2L)))
+                .thenReturn(List.of());
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any()))
+                .then(occurrences(first, second));
+        when(taskRepository.findTaskKeys(any(), any(), any()))
+                .thenReturn(List.of(new TaskKey(1L, first)))
+                .thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any()))
+                .then(returnsFirstArg())
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        schedulerService.generateTasks();
+
+        assertEquals(1, meterRegistry.get("scheduler.run.duration").timer().count());
+        assertEquals(3, meterRegistry.get("scheduler.run.phase").tag("phase", "fetch").timer().count());
+        assertEquals(2, meterRegistry.get("scheduler.run.phase").tag("phase", "insert").timer().count());
+        assertEquals(2, meterRegistry.get("scheduler.plans.processed").counter().count());
+        assertEquals(4, meterRegistry.get("scheduler.occurrences.computed").counter().count());
+        assertEquals(1, meterRegistry.get("scheduler.tasks.created").counter().count());
+        assertEquals(1, meterRegistry.get("scheduler.tasks.duplicates.skipped").counter().count());
+        assertEquals(2, meterRegistry.get("scheduler.tasks.insert.failures").counter().count());
+        assertEquals(1, meterRegistry.get("scheduler.chunks.failed").counter().count());
+        assertEquals(2, meterRegistry.get("scheduler.plans.active").gauge().value());
+        assertEquals(300, meterRegistry.get("scheduler.execution.interval").timeGauge().value(TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("scheduler.task.lead.time").timer().count());
+        assertEquals(0, meterRegistry.get("scheduler.tasks.late").counter().count());
+        verify(schedulerRunService).recordRun(any(), anyLong(), argThat(result -> result.plansProcessed() == 2), any());
+    }
+
+    @Test
+    void reportsProgressOfTrackedRun() {
+        ReflectionTestUtils.setField(schedulerService, "chunkSize", 1);
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(30).withSecond(0).withNano(0);
+
+        when(planRepository.countActiveValidPlans(any(), eq(1), eq(List.of(0)))).thenReturn(2L);
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(List.of(planWithId(1L)))
+                .thenReturn(List.of(planWithId(2L)))
+                .thenReturn(List.of());
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
+        RunProgress progress = new RunProgress();
+
+        schedulerService.generateTasks(progress);
+
+        assertEquals(2, progress.getPlansTotal());
+        assertEquals(2, progress.getPlansDone());
+        assertEquals(2, progress.getTasksCreated());
+        assertEquals(7L, progress.getRunId());
+    }
+
+    @Test
+    void processesPartitionsConcurrentlyAndMergesResults() {
+        ReflectionTestUtils.setField(schedulerService, "partitions", 4);
+        ReflectionTestUtils.setField(schedulerService, "parallelism", 2);
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(30).withSecond(0).withNano(0);
+
+        when(planRepository.findActiveValidPlansAfter(any(), eq(4), anyInt(), eq(0L), any()))
+                .thenAnswer(invocation -> List.of(planWithId(invocation.<Integer>getArgument(2) + 4L)));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
+
+        GenerationResult result = schedulerService.generateTasks();
+
+        assertEquals(4, result.tasksCreated());
+        assertEquals(4, result.plansProcessed());
+        assertEquals(List.of(0, 1, 2, 3), result.chunks().stream().map(ChunkResult::partition).toList());
+        for (int partition = 0; partition < 4; partition++) {
+            verify(planRepository).findActiveValidPlansAfter(any(), eq(4), eq(partition), eq(0L), any());
+        }
+    }
+
+    @Test
+    void processesOnlyLeasedPartitions() {
+        ReflectionTestUtils.setField(schedulerService, "partitions", 4);
+        ReflectionTestUtils.setField(schedulerService, "parallelism", 2);
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(30).withSecond(0).withNano(0);
+
+        when(partitionLeaseService.acquirePartitions(4)).thenReturn(List.of(1, 3));
+        when(planRepository.findActiveValidPlansAfter(any(), eq(4), anyInt(), eq(0L), any()))
+                .thenAnswer(invocation -> List.of(planWithId(invocation.<Integer>getArgument(2) + 4L)));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
+
+        GenerationResult result = schedulerService.generateTasks();
+
+        assertEquals(2, result.tasksCreated());
+        assertEquals(List.of(1, 3), result.chunks().stream().map(ChunkResult::partition).toList());
+        verify(planRepository, never()).findActiveValidPlansAfter(any(), eq(4), eq(0), any(), any());
+        verify(planRepository, never()).findActiveValidPlansAfter(any(), eq(4), eq(2), any(), any());
+    }
+
+    @Test
+    void generatesOnlySliceAfterWatermarkWithoutExistenceCheck() {
+        LocalDateTime watermark = LocalDateTime.now().plusMinutes(50);
+        ActivePlan plan = new ActivePlan(
+                samplePlan.id(),
+                samplePlan.treatmentAction(),
+                samplePlan.subjectPatient(),
+                samplePlan.startTime(),
+                samplePlan.endTime(),
+                samplePlan.recurrencePattern(),
+                watermark,
+                samplePlan.nextFireAt());
+        LocalDateTime occurrence = watermark.plusMinutes(5);
+
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(plan));
+        when(recurrenceService.fillOccurrences(any(), eq(EpochMinutes.ceil(watermark)), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
 
         int generated = schedulerService.generateTasksNow();
+
         assertEquals(1, generated);
-        verify(taskRepository, times(1)).save(any());
+        verify(taskRepository, never()).findTaskKeys(any(), any(), any());
+        ArgumentCaptor<LocalDateTime> untilCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(planRepository).advanceGeneratedUntil(eq(List.of(plan.id())), untilCaptor.capture());
+        assertTrue(untilCaptor.getValue().isAfter(watermark));
+    }
+
+    @Test
+    void dueRunReadsOnlyDuePlansAndRecordsNextFireTimes() {
+        LocalDateTime occurrence = LocalDateTime.now().plusMinutes(30).withSecond(0).withNano(0);
+        LocalDateTime nextOccurrence = occurrence.plusDays(1);
+
+        when(planRepository.findDuePlansAfter(any(), anyInt(), anyInt(), any(), any(), any())).thenReturn(List.of(samplePlan));
+        when(recurrenceService.fillOccurrences(any(), anyLong(), any(), any(), any(), any())).then(occurrences(occurrence));
+        when(recurrenceService.getFirstOccurrences(any(), any(), eq(1), any(), any())).thenReturn(List.of(nextOccurrence));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(taskRepository.insertIfAbsent(any())).then(returnsFirstArg());
+
+        GenerationResult result = schedulerService.generateDueTasks();
+
+        assertEquals(1, result.tasksCreated());
+        verify(planRepository, never()).findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any());
+        LocalDateTime expectedFireTime = nextOccurrence.minusHours(1);
+        verify(planRepository).updateNextFireTimes(Map.of(samplePlan.id(), expectedFireTime));
+        verify(eventPublisher).publishEvent(new PlanScheduleChangedEvent(Set.of(expectedFireTime)));
+    }
+
+    @Test
+    void dueRunWithoutDuePlansRecordsNothing() {
+        when(planRepository.findDuePlansAfter(any(), anyInt(), anyInt(), any(), any(), any())).thenReturn(List.of());
+
+        GenerationResult result = schedulerService.generateDueTasks();
+
+        assertEquals(0, result.plansProcessed());
+        verify(schedulerRunService, never()).recordRun(any(), anyLong(), any(), any());
+        verifyNoInteractions(recurrenceService, taskRepository);
+    }
+
+    @Test
+    void doesNotAdvanceWatermarkOfPlanThatFailed() {
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(samplePlan));
+        when(taskRepository.findTaskKeys(any(), any(), any())).thenReturn(List.of());
+        when(recurrenceService.parsePattern(any())).thenThrow(new IllegalArgumentException("broken"));
+
+        int generated = schedulerService.generateTasksNow();
+
+        assertEquals(0, generated);
+        verify(planRepository, never()).advanceGeneratedUntil(any(), any());
     }
 
     @Test
     void returnsZeroWhenNoActivePlans() {
-        when(planRepository.findActiveValidPlans(any())).thenReturn(List.of());
+        when(planRepository.findActiveValidPlansAfter(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of());
 
         int generated = schedulerService.generateTasksNow();
 
         assertEquals(0, generated);
         verifyNoInteractions(taskRepository);
     }
+
+    /**
+     * Answers {@link RecurrencePatternService#fillOccurrences} with the given occurrences at or after the requested
+     * epoch-minute.
+     */
+    private static Answer<Integer> occurrences(LocalDateTime... occurrences) {
+        return invocation -> {
+            long fromMinute = invocation.getArgument(1);
+            long[] buffer = invocation.getArgument(5);
+            int count = 0;
+            for (LocalDateTime occurrence : occurrences) {
+                long minute = EpochMinutes.floor(occurrence);
+                if (minute >= fromMinute && count < buffer.length) {
+                    buffer[count++] = minute;
+                }
+            }
+            return count;
+        };
+    }
+
+    private ActivePlan planWithId(Long id) {
+        return new ActivePlan(
+                id,
+                samplePlan.treatmentAction(),
+                samplePlan.subjectPatient(),
+                samplePlan.startTime(),
+                samplePlan.endTime(),
+                samplePlan.recurrencePattern(),
+                samplePlan.generatedUntil(),
+                samplePlan.nextFireAt());
+    }
 }
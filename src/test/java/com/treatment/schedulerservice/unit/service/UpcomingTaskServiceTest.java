@@ -0,0 +1,71 @@
+package com.treatment.schedulerservice.unit.service;
+
+import com.treatment.schedulerservice.domain.TaskStatus;
+import com.treatment.schedulerservice.domain.TreatmentAction;
+import com.treatment.schedulerservice.dto.TaskFilter;
+import com.treatment.schedulerservice.dto.TaskView;
+import com.treatment.schedulerservice.event.TasksChangedEvent;
+import com.treatment.schedulerservice.repository.TreatmentTaskRepository;
+import com.treatment.schedulerservice.service.UpcomingTaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UpcomingTaskServiceTest {
+
+    private final TreatmentTaskRepository treatmentTaskRepository = mock(TreatmentTaskRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpcomingTaskService service =
+            new UpcomingTaskService(treatmentTaskRepository, meterRegistry, 100, 60_000, 24);
+
+    @Test
+    void readsTasksOfAPatientOnceAndFiltersByHours() {
+        LocalDateTime now = LocalDateTime.now();
+        TaskView soon = task(1L, now.plusHours(1));
+        TaskView later = task(2L, now.plusHours(10));
+        when(treatmentTaskRepository.findTasks(any(), isNull(), anyInt())).thenReturn(List.of(soon, later));
+
+        assertEquals(List.of(soon), service.findUpcomingTasks("PATIENT_1", 2));
+        assertEquals(List.of(soon, later), service.findUpcomingTasks("PATIENT_1", 12));
+
+        verify(treatmentTaskRepository, times(1)).findTasks(
+                argThat((TaskFilter filter) -> filter.subjectPatient().equals("PATIENT_1")
+                        && filter.status() == TaskStatus.ACTIVE
+                        && !filter.to().isBefore(now.plusHours(24))),
+                isNull(), anyInt());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "upcoming_tasks").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void changedPatientsAreReadAgain() {
+        when(treatmentTaskRepository.findTasks(any(), isNull(), anyInt()))
+                .thenReturn(List.of(task(1L, LocalDateTime.now().plusHours(1))))
+                .thenReturn(List.of());
+
+        assertEquals(1, service.findUpcomingTasks("PATIENT_1", 8).size());
+        service.onTasksChanged(new TasksChangedEvent(Set.of("PATIENT_1", "PATIENT_2")));
+
+        assertEquals(List.of(), service.findUpcomingTasks("PATIENT_1", 8));
+        verify(treatmentTaskRepository, times(2)).findTasks(any(), isNull(), anyInt());
+    }
+
+    @Test
+    void rejectsMissingPatient() {
+        assertThrows(IllegalArgumentException.class, () -> service.findUpcomingTasks(" ", 8));
+        verifyNoInteractions(treatmentTaskRepository);
+    }
+
+    private static TaskView task(Long id, LocalDateTime startTime) {
+        return new TaskView(id, 1L, "PATIENT_1", TreatmentAction.ACTION_A, startTime, TaskStatus.ACTIVE, null);
+    }
+}